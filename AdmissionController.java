@@ -0,0 +1,229 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission stage in front of feedback ingestion.
+ *
+ * Checks run in this order:
+ *   1. The per-user token bucket, keyed on the logged-in account, so one client repeating
+ *      itself is throttled before anything else is looked at.
+ *   2. Duplicate (form, email) check against a set of 64-bit key hashes of everything stored
+ *      or accepted. Adding to that set reserves the key atomically, so concurrent or
+ *      still-queued duplicates are caught. Every key has to be recorded for the check to be
+ *      exact, so a Bloom filter in front of this set would only add hashing, not save work.
+ *   3. Token buckets per form and for the whole system, so bursts are rejected with a
+ *      retry hint instead of piling up behind the store.
+ *
+ * Limits are read from system properties (burst / refill per second); a refill of 0
+ * disables that limit:
+ *   feedback.admission.user.burst / .user.rate      (default 3 / 0.1)
+ *   feedback.admission.form.burst / .form.rate      (default 200 / 50)
+ *   feedback.admission.global.burst / .global.rate  (default 1000 / 500)
+ */
+class AdmissionController {
+
+    private static final int MAX_IDLE_BUCKETS = 10_000;
+
+    private final Limit userLimit = Limit.fromProperties("user", 3, 0.1);
+    private final Limit formLimit = Limit.fromProperties("form", 200, 50);
+    private final Limit globalLimit = Limit.fromProperties("global", 1000, 500);
+
+    private final Buckets userBuckets = new Buckets();
+    private final Buckets formBuckets = new Buckets();
+    private final TokenBucket globalBucket = globalLimit.newBucket();
+    // Keys of stored and accepted-but-not-yet-stored submissions; the exact duplicate check
+    private final Set<Long> reserved = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param account the logged-in user submitting; the name typed into the form is not
+     *                used, since it can be changed freely
+     */
+    public Decision admit(User account, Feedback feedback) {
+        long waitMillis = tryAcquire(userBuckets, account == null ? null : account.getUsername(), userLimit);
+        if (waitMillis > 0) {
+            return Decision.reject(Outcome.RATE_LIMITED, waitMillis, "Too many submissions from this user.");
+        }
+
+        long key = keyOf(feedback);
+        if (!reserved.add(key)) {
+            return Decision.reject(Outcome.DUPLICATE, 0, "Feedback from this email has already been submitted for this form.");
+        }
+
+        waitMillis = tryAcquire(formBuckets, feedback.getFormId(), formLimit);
+        if (waitMillis > 0) {
+            reserved.remove(key);
+            return Decision.reject(Outcome.RATE_LIMITED, waitMillis, "This form is receiving too many submissions.");
+        }
+        waitMillis = globalBucket == null ? 0 : globalBucket.tryAcquire();
+        if (waitMillis > 0) {
+            reserved.remove(key);
+            return Decision.reject(Outcome.OVERLOADED, waitMillis, "The system is busy.");
+        }
+        return Decision.ACCEPTED;
+    }
+
+    /** Gives back the key of an accepted submission that could not be stored after all. */
+    public void release(Feedback feedback) {
+        reserved.remove(keyOf(feedback));
+    }
+
+    /**
+     * Reserves the key of feedback that is stored without going through admit(), such as a
+     * bulk import. Returns false if feedback with the same (form, email) is already known.
+     */
+    public boolean reserve(Feedback feedback) {
+        return reserved.add(keyOf(feedback));
+    }
+
+    /** Marks stored feedback as seen, so duplicates of imported or replicated records are caught too. */
+    public void remember(Feedback feedback) {
+        reserved.add(keyOf(feedback)); // no-op for feedback admitted through admit()
+    }
+
+    /** Forgets every previously seen submission, e.g. after all feedback was cleared. */
+    public void reset() {
+        reserved.clear();
+    }
+
+    private static long keyOf(Feedback feedback) {
+        return hash(feedback.getFormId() + '\u0000' + normalize(feedback.getUserEmail()));
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur-style mix
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long tryAcquire(Buckets buckets, String key, Limit limit) {
+        if (limit.refillPerSec <= 0) return 0;
+        return buckets.get(key, limit).tryAcquire();
+    }
+
+    private static class Limit {
+        final double capacity;
+        final double refillPerSec;
+
+        Limit(double capacity, double refillPerSec) {
+            this.capacity = capacity;
+            this.refillPerSec = refillPerSec;
+        }
+
+        static Limit fromProperties(String name, double defaultBurst, double defaultRate) {
+            String prefix = "feedback.admission." + name;
+            return new Limit(Double.parseDouble(System.getProperty(prefix + ".burst", String.valueOf(defaultBurst))),
+                    Double.parseDouble(System.getProperty(prefix + ".rate", String.valueOf(defaultRate))));
+        }
+
+        TokenBucket newBucket() {
+            return refillPerSec <= 0 ? null : new TokenBucket(capacity, refillPerSec);
+        }
+    }
+
+    /**
+     * Token buckets by key. Full buckets carry no state worth keeping and are swept out
+     * once the map passes a threshold; if many are still refilling, the threshold doubles
+     * so the sweep stays amortized O(1) per call instead of running on every call.
+     */
+    private static class Buckets {
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private volatile int sweepAt = MAX_IDLE_BUCKETS;
+
+        TokenBucket get(String key, Limit limit) {
+            if (buckets.size() > sweepAt) sweep();
+            return buckets.computeIfAbsent(key == null ? "" : key, k -> limit.newBucket());
+        }
+
+        private synchronized void sweep() {
+            if (buckets.size() <= sweepAt) return;
+            buckets.values().removeIf(TokenBucket::isFull);
+            sweepAt = Math.max(MAX_IDLE_BUCKETS, buckets.size() * 2);
+        }
+    }
+
+    enum Outcome { ACCEPTED, DUPLICATE, RATE_LIMITED, OVERLOADED }
+
+    static class Decision {
+        static final Decision ACCEPTED = new Decision(Outcome.ACCEPTED, 0, "Accepted.");
+
+        private final Outcome outcome;
+        private final long retryAfterMillis;
+        private final String message;
+
+        private Decision(Outcome outcome, long retryAfterMillis, String message) {
+            this.outcome = outcome;
+            this.retryAfterMillis = retryAfterMillis;
+            this.message = message;
+        }
+
+        static Decision reject(Outcome outcome, long retryAfterMillis, String message) {
+            return new Decision(outcome, retryAfterMillis, message);
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public boolean isAccepted() { return outcome == Outcome.ACCEPTED; }
+        /** Suggested wait before retrying, or 0 if retrying will not help. */
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+
+        public String getMessage() {
+            if (retryAfterMillis <= 0) return message;
+            return message + " Please retry in " + Math.max(1, (retryAfterMillis + 999) / 1000) + " second(s).";
+        }
+
+        @Override
+        public String toString() {
+            return outcome + ": " + getMessage();
+        }
+    }
+
+    static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double refillPerSec) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSec / 1_000_000_000d;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /** Takes one token; returns 0 on success, otherwise the milliseconds until one is available. */
+        synchronized long tryAcquire() {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000d));
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Logins per second for the different authentication paths.
+ *
+ * Usage: java AuthBenchmark [seconds per case]
+ */
+public class AuthBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long millis = (args.length > 0 ? Long.parseLong(args[0]) : 2) * 1000;
+        String password = "correct horse battery staple";
+
+        User legacyUser = new User("bench", legacyHash(password), "USER");
+        report("legacy hashPassword + equals", millis, () -> legacyHash(password).equals(legacyUser.getPasswordHash()));
+
+        Sha256Hasher sha256 = new Sha256Hasher();
+        String stored = sha256.hash(password);
+        report("Sha256Hasher.verify", millis, () -> sha256.verify(password, stored));
+
+        AuthService fast = new AuthService(name -> legacyUser, (name, hash) -> {});
+        report("AuthService.authenticate (sha256)", millis, () -> fast.authenticate("bench", password) != null);
+
+        Pbkdf2Hasher pbkdf2 = new Pbkdf2Hasher(Integer.getInteger("auth.pbkdf2.iterations", 100_000));
+        User slowUser = new User("slow", pbkdf2.hash(password), "USER");
+        report("Pbkdf2Hasher.verify (single thread)", millis, () -> pbkdf2.verify(password, slowUser.getPasswordHash()));
+
+        AuthService cached = new AuthService(name -> slowUser, (name, hash) -> {});
+        report("AuthService.authenticate (pbkdf2, session hit)", millis, () -> cached.authenticate("slow", password) != null);
+
+        // Distinct users so every login misses the session cache and pays for the KDF
+        AuthService async = new AuthService(name -> new User(name, slowUser.getPasswordHash(), "USER"), (name, hash) -> {});
+        long end = System.currentTimeMillis() + millis;
+        long logins = 0;
+        int user = 0;
+        while (System.currentTimeMillis() < end) {
+            List<CompletableFuture<User>> batch = new ArrayList<>();
+            for (int i = 0; i < 32; i++) batch.add(async.authenticateAsync("user" + user++, password));
+            for (CompletableFuture<User> f : batch) {
+                if (f.get() != null) logins++;
+            }
+        }
+        System.out.printf("%-45s %,12.0f logins/s%n", "AuthService.authenticateAsync (pbkdf2)", logins * 1000.0 / millis);
+    }
+
+    private interface Login {
+        boolean run();
+    }
+
+    private static void report(String name, long millis, Login login) {
+        long warmUpEnd = System.currentTimeMillis() + Math.min(500, millis / 4);
+        while (System.currentTimeMillis() < warmUpEnd) login.run();
+        long end = System.currentTimeMillis() + millis;
+        long count = 0;
+        while (System.currentTimeMillis() < end) {
+            if (!login.run()) throw new IllegalStateException(name + " rejected a valid password");
+            count++;
+        }
+        System.out.printf("%-45s %,12.0f logins/s%n", name, count * 1000.0 / millis);
+    }
+
+    // The scheme DataService used before AuthService, kept here as the baseline
+    private static String legacyHash(String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) hexString.append('0');
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
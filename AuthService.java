@@ -0,0 +1,351 @@
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/** Strategy for turning a password into a stored hash and checking it later. */
+interface PasswordHasher {
+    String hash(String password);
+
+    /** Constant-time check of a password against a stored hash produced by this hasher. */
+    boolean verify(String password, String storedHash);
+
+    /** True if the stored hash was produced by this hasher. */
+    boolean handles(String storedHash);
+}
+
+/**
+ * Unsalted SHA-256 as lowercase hex: the original scheme, kept so existing hashes still verify.
+ * Digest, input and output buffers are reused per thread, so verify() does not allocate.
+ */
+class Sha256Hasher implements PasswordHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    private static final ThreadLocal<byte[]> OUT = ThreadLocal.withInitial(() -> new byte[DIGEST_LENGTH]);
+    private static final ThreadLocal<byte[][]> IN = ThreadLocal.withInitial(() -> new byte[][]{new byte[64]});
+
+    @Override
+    public String hash(String password) {
+        byte[] digest = digest(password);
+        char[] hex = new char[DIGEST_LENGTH * 2];
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            hex[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        if (storedHash == null || storedHash.length() != DIGEST_LENGTH * 2) return false;
+        byte[] digest = digest(password);
+        int diff = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int stored = (Character.digit(storedHash.charAt(2 * i), 16) << 4) | Character.digit(storedHash.charAt(2 * i + 1), 16);
+            diff |= stored ^ (digest[i] & 0xff);
+        }
+        return diff == 0;
+    }
+
+    @Override
+    public boolean handles(String storedHash) {
+        if (storedHash == null || storedHash.length() != DIGEST_LENGTH * 2) return false;
+        for (int i = 0; i < storedHash.length(); i++) {
+            if (Character.digit(storedHash.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    /** Digest of the UTF-8 encoded password, in a per-thread buffer that is overwritten by the next call. */
+    private static byte[] digest(String password) {
+        byte[][] holder = IN.get();
+        int length = AuthService.encodeUtf8(password, holder);
+        MessageDigest md = DIGEST.get();
+        md.update(holder[0], 0, length);
+        byte[] out = OUT.get();
+        try {
+            md.digest(out, 0, DIGEST_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return out;
+    }
+}
+
+/** Salted PBKDF2-HMAC-SHA256, stored as "pbkdf2$iterations$salt$hash" (Base64). Deliberately slow. */
+class Pbkdf2Hasher implements PasswordHasher {
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    Pbkdf2Hasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(derive(password, salt, iterations));
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        if (!handles(storedHash)) return false;
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, salt, Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean handles(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    /** True if the stored hash uses fewer iterations than this hasher is configured for. */
+    boolean isWeakerThanConfigured(String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
+
+/**
+ * Password hashing and login checks, kept off the Swing thread.
+ *
+ * The hasher for new passwords is chosen with -Dauth.hasher=sha256|pbkdf2 (default sha256,
+ * -Dauth.pbkdf2.iterations to tune). Stored hashes of either kind always verify, and with
+ * pbkdf2 configured a successful login upgrades an older or weaker hash.
+ *
+ * Successful logins against a slow hash are remembered for SESSION_TTL_MILLIS as a keyed
+ * fingerprint of the password, so repeated checks for the same user skip the KDF.
+ */
+class AuthService {
+
+    private static final long SESSION_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int FINGERPRINT_LENGTH = 32;
+
+    private final PasswordHasher sha256 = new Sha256Hasher();
+    private final Pbkdf2Hasher pbkdf2 = new Pbkdf2Hasher(Integer.getInteger("auth.pbkdf2.iterations", 100_000));
+    private final PasswordHasher configured = "pbkdf2".equalsIgnoreCase(System.getProperty("auth.hasher")) ? pbkdf2 : sha256;
+
+    private final Function<String, User> userLookup;
+    private final BiConsumer<String, String> hashUpgrade;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // Per-process key: fingerprints are useless outside this JVM
+    private final byte[] sessionKey = new byte[32];
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<byte[]> fingerprintBuffer = ThreadLocal.withInitial(() -> new byte[FINGERPRINT_LENGTH]);
+    private final ThreadLocal<byte[][]> utf8Buffer = ThreadLocal.withInitial(() -> new byte[][]{new byte[64]});
+
+    /**
+     * @param userLookup  username -> user, or null if unknown
+     * @param hashUpgrade (username, new hash) called when a login upgrades an older hash
+     */
+    AuthService(Function<String, User> userLookup, BiConsumer<String, String> hashUpgrade) {
+        this.userLookup = userLookup;
+        this.hashUpgrade = hashUpgrade;
+        new SecureRandom().nextBytes(sessionKey);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(new SecretKeySpec(sessionKey, "HmacSHA256"));
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "auth-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public String hashPassword(String password) {
+        return configured.hash(password);
+    }
+
+    public boolean isPasswordHash(String storedHash) {
+        return sha256.handles(storedHash) || pbkdf2.handles(storedHash);
+    }
+
+    /** Synchronous check; returns the user or null. Prefer authenticateAsync on the EDT. */
+    public User authenticate(String username, String password) {
+        FeedbackEvents.Authenticate event = new FeedbackEvents.Authenticate();
+        event.begin();
+        User user = verify(username, password, event);
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.success = user != null;
+            event.commit();
+        }
+        return user;
+    }
+
+    private User verify(String username, String password, FeedbackEvents.Authenticate event) {
+        User user = userLookup.apply(username);
+        if (user == null || password == null) return null;
+        String stored = user.getPasswordHash();
+
+        // Only slow hashes go through the session cache; SHA-256 verifies faster than the HMAC
+        Session session = pbkdf2.handles(stored) ? sessions.get(username) : null;
+        if (session != null && session.matches(stored, fingerprint(password))) {
+            event.sessionHit = true;
+            return user;
+        }
+
+        PasswordHasher hasher = pbkdf2.handles(stored) ? pbkdf2 : sha256;
+        if (!hasher.verify(password, stored)) return null;
+
+        // Only ever upgrade: a PBKDF2 hash is kept even if new passwords use SHA-256
+        if (configured == pbkdf2 && (hasher != pbkdf2 || pbkdf2.isWeakerThanConfigured(stored))) {
+            String upgraded = configured.hash(password);
+            hashUpgrade.accept(username, upgraded);
+            stored = upgraded;
+        }
+        if (pbkdf2.handles(stored)) {
+            sessions.put(username, new Session(stored, fingerprint(password).clone(), System.currentTimeMillis() + SESSION_TTL_MILLIS));
+        }
+        return user;
+    }
+
+    /**
+     * Runs the check on the bounded auth executor. Completes exceptionally with
+     * RejectedExecutionException if too many logins are already queued.
+     */
+    public CompletableFuture<User> authenticateAsync(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password), executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<User> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /** Forgets the remembered login, e.g. after a password change or user deletion. */
+    public void invalidate(String username) {
+        sessions.remove(username);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /** HMAC of the password in a per-thread buffer; clone it before keeping it. */
+    private byte[] fingerprint(String password) {
+        byte[][] holder = utf8Buffer.get();
+        int length = encodeUtf8(password, holder);
+        Mac m = mac.get();
+        m.update(holder[0], 0, length);
+        byte[] out = fingerprintBuffer.get();
+        try {
+            m.doFinal(out, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return out;
+    }
+
+    /** UTF-8 encodes into holder[0], growing it if needed; returns the encoded length. */
+    static int encodeUtf8(String s, byte[][] holder) {
+        byte[] buf = holder[0];
+        if (buf.length < s.length() * 3) {
+            buf = new byte[s.length() * 3];
+            holder[0] = buf;
+        }
+        int pos = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buf[pos++] = '?'; // unpaired surrogate, same replacement String.getBytes uses
+            } else {
+                buf[pos++] = (byte) (0xe0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return pos;
+    }
+
+    private static class Session {
+        final String storedHash;
+        final byte[] fingerprint;
+        final long expiresAt;
+
+        Session(String storedHash, byte[] fingerprint, long expiresAt) {
+            this.storedHash = storedHash;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        // A password change replaces the stored hash, which invalidates the session too
+        boolean matches(String currentHash, byte[] candidate) {
+            if (System.currentTimeMillis() > expiresAt || !storedHash.equals(currentHash)) return false;
+            int diff = 0;
+            for (int i = 0; i < FINGERPRINT_LENGTH; i++) diff |= fingerprint[i] ^ candidate[i];
+            return diff == 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,541 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of users, forms or historical feedback from CSV or JSON Lines files.
+ *
+ * The file is memory-mapped and cut into chunks at record boundaries in one cheap
+ * sequential pass. Chunks are then parsed and validated in parallel, and everything
+ * valid is handed to DataService.bulkLoad in a single call (one lock, one copy of each list).
+ *
+ * CSV files need a header row. JSON Lines files hold one flat object per line.
+ *   users:    username, role (ADMIN|USER), password or passwordHash
+ *   forms:    title, description, categories ("A;B" in CSV, array in JSON), optional id
+ *   feedback: formId or formTitle, userName, userEmail, comments, then ratings -
+ *             one column per category in CSV, a "ratings" object in JSON
+ */
+class BulkImporter {
+
+    enum RecordType { USERS, FORMS, FEEDBACK }
+
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final long SCAN_WINDOW = 1L << 30;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final DataService dataService;
+
+    BulkImporter(DataService dataService) {
+        this.dataService = dataService;
+    }
+
+    public ImportResult importFile(Path file, RecordType type) throws IOException {
+        FeedbackEvents.BulkImport event = new FeedbackEvents.BulkImport();
+        event.begin();
+        ImportResult result = importFile(file, type, System.nanoTime());
+        if (event.shouldCommit()) {
+            event.recordType = type.name();
+            event.records = result.loaded;
+            event.rejected = result.errorCount;
+            event.bytes = result.bytes;
+            event.commit();
+        }
+        return result;
+    }
+
+    private ImportResult importFile(Path file, RecordType type, long started) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".jsonl") && !name.endsWith(".ndjson")) {
+            throw new IOException("Unsupported file type (expected .csv, .jsonl or .ndjson): " + file.getFileName());
+        }
+
+        List<Chunk> chunks;
+        List<String> header = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            chunks = split(channel, csv);
+            if (csv && !chunks.isEmpty()) {
+                // The header is the first record of the first chunk
+                Chunk first = chunks.get(0);
+                CsvReader reader = new CsvReader(read(channel, first), first.firstLine);
+                header = reader.next();
+                if (header == null) return new ImportResult(type, 0, new ArrayList<>(), 0, bytes, System.nanoTime() - started);
+                first.skipHeader = true;
+            }
+
+            Map<String, FormDefinition> formsByKey = new HashMap<>();
+            for (FormDefinition form : dataService.getForms()) {
+                formsByKey.put(form.getId(), form);
+                formsByKey.putIfAbsent(form.getTitle(), form);
+            }
+            List<String> columns = header;
+            List<ChunkResult> results = chunks.parallelStream()
+                    .map(chunk -> parse(channel, chunk, csv, columns, type, formsByKey))
+                    .collect(Collectors.toList());
+            return load(type, results, bytes, started);
+        }
+    }
+
+    // --- Splitting ---
+
+    private static class Chunk {
+        final long start;
+        final long end;
+        final long firstLine;
+        boolean skipHeader;
+
+        Chunk(long start, long end, long firstLine) {
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+        }
+    }
+
+    /** Sequential pass that cuts the file at record boundaries (quote-aware for CSV) and counts lines. */
+    private static List<Chunk> split(FileChannel channel, boolean csv) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long size = channel.size();
+        long chunkStart = 0, chunkLine = 1, line = 1;
+        boolean inQuotes = false;
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            long windowSize = Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            for (int i = 0; i < windowSize; i++) {
+                byte b = window.get(i);
+                if (csv && b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    line++;
+                    long pos = windowStart + i + 1;
+                    if (!inQuotes && pos - chunkStart >= CHUNK_BYTES) {
+                        chunks.add(new Chunk(chunkStart, pos, chunkLine));
+                        chunkStart = pos;
+                        chunkLine = line;
+                    }
+                }
+            }
+        }
+        if (chunkStart < size) chunks.add(new Chunk(chunkStart, size, chunkLine));
+        return chunks;
+    }
+
+    private static String read(FileChannel channel, Chunk chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        int offset = 0;
+        if (chunk.start == 0 && bytes.length >= 3 && (bytes[0] & 0xff) == 0xEF && (bytes[1] & 0xff) == 0xBB && (bytes[2] & 0xff) == 0xBF) {
+            offset = 3; // UTF-8 byte order mark
+        }
+        return new String(bytes, offset, bytes.length - offset, StandardCharsets.UTF_8);
+    }
+
+    // --- Parsing & validation (runs in parallel, one call per chunk) ---
+
+    private static class ChunkResult {
+        final List<User> users = new ArrayList<>();
+        final List<FormDefinition> forms = new ArrayList<>();
+        final List<Feedback> feedback = new ArrayList<>();
+        final List<Long> userLines = new ArrayList<>();
+        final List<Long> formLines = new ArrayList<>();
+        final List<Long> feedbackLines = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        int errorCount;
+
+        void error(long line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + line + ": " + message);
+        }
+    }
+
+    private ChunkResult parse(FileChannel channel, Chunk chunk, boolean csv, List<String> header,
+                              RecordType type, Map<String, FormDefinition> formsByKey) {
+        ChunkResult result = new ChunkResult();
+        String text;
+        try {
+            text = read(channel, chunk);
+        } catch (IOException e) {
+            result.error(chunk.firstLine, "Could not read: " + e.getMessage());
+            return result;
+        }
+        if (csv) {
+            CsvReader reader = new CsvReader(text, chunk.firstLine);
+            if (chunk.skipHeader) reader.next();
+            List<String> fields;
+            while (true) {
+                long line = reader.getLine();
+                if ((fields = reader.next()) == null) break;
+                if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // blank line
+                if (fields.size() != header.size()) {
+                    result.error(line, "Expected " + header.size() + " fields but found " + fields.size());
+                    continue;
+                }
+                Map<String, Object> record = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) record.put(header.get(i).trim(), fields.get(i));
+                convert(record, line, csv, type, formsByKey, result);
+            }
+        } else {
+            long line = chunk.firstLine;
+            int pos = 0;
+            while (pos < text.length()) {
+                int eol = text.indexOf('\n', pos);
+                if (eol < 0) eol = text.length();
+                String json = text.substring(pos, eol).trim();
+                if (!json.isEmpty()) {
+                    try {
+                        convert(new JsonParser(json).parseObject(), line, csv, type, formsByKey, result);
+                    } catch (IllegalArgumentException e) {
+                        result.error(line, "Invalid JSON: " + e.getMessage());
+                    }
+                }
+                pos = eol + 1;
+                line++;
+            }
+        }
+        return result;
+    }
+
+    private void convert(Map<String, Object> record, long line, boolean csv, RecordType type,
+                         Map<String, FormDefinition> formsByKey, ChunkResult result) {
+        switch (type) {
+            case USERS: {
+                String username = text(record.get("username"));
+                String role = text(record.get("role")).toUpperCase(Locale.ROOT);
+                String hash = text(record.get("passwordHash"));
+                String password = text(record.get("password"));
+                if (username.isEmpty()) { result.error(line, "Missing username"); return; }
+                if (!role.equals("ADMIN") && !role.equals("USER")) { result.error(line, "Role must be ADMIN or USER"); return; }
+                if (hash.isEmpty()) {
+                    if (password.isEmpty()) { result.error(line, "Missing password or passwordHash"); return; }
+                    hash = dataService.hashPassword(password);
+                } else if (!dataService.isPasswordHash(hash)) {
+                    result.error(line, "passwordHash is neither a SHA-256 hex digest nor a pbkdf2$ hash");
+                    return;
+                }
+                result.users.add(new User(username, hash, role));
+                result.userLines.add(line);
+                return;
+            }
+            case FORMS: {
+                String title = text(record.get("title"));
+                List<String> categories = new ArrayList<>();
+                Object raw = record.get("categories");
+                if (raw instanceof List) {
+                    for (Object o : (List<?>) raw) if (!text(o).isEmpty()) categories.add(text(o));
+                } else {
+                    for (String c : text(raw).split(";")) if (!c.trim().isEmpty()) categories.add(c.trim());
+                }
+                if (title.isEmpty()) { result.error(line, "Missing title"); return; }
+                if (categories.isEmpty()) { result.error(line, "A form needs at least one rating category"); return; }
+                String id = text(record.get("id"));
+                String description = text(record.get("description"));
+                result.forms.add(id.isEmpty() ? new FormDefinition(title, description, categories)
+                                              : new FormDefinition(id, title, description, categories));
+                result.formLines.add(line);
+                return;
+            }
+            default: {
+                String formKey = text(record.get("formId"));
+                if (formKey.isEmpty()) formKey = text(record.get("formTitle"));
+                FormDefinition form = formsByKey.get(formKey);
+                if (form == null) { result.error(line, "Unknown form: " + formKey); return; }
+                String email = text(record.get("userEmail"));
+                if (email.isEmpty() || !email.contains("@")) { result.error(line, "Invalid email: " + email); return; }
+
+                Map<String, Integer> ratings = new HashMap<>();
+                Map<String, Object> rawRatings = new LinkedHashMap<>();
+                if (csv) {
+                    for (Map.Entry<String, Object> e : record.entrySet()) {
+                        if (!FEEDBACK_COLUMNS.contains(e.getKey())) rawRatings.put(e.getKey(), e.getValue());
+                    }
+                } else if (record.get("ratings") instanceof Map) {
+                    for (Map.Entry<?, ?> e : ((Map<?, ?>) record.get("ratings")).entrySet()) rawRatings.put(text(e.getKey()), e.getValue());
+                }
+                for (Map.Entry<String, Object> e : rawRatings.entrySet()) {
+                    String value = text(e.getValue());
+                    if (value.isEmpty()) continue;
+                    if (!form.getRatingCategories().contains(e.getKey())) {
+                        result.error(line, "Form \"" + form.getTitle() + "\" has no category " + e.getKey());
+                        return;
+                    }
+                    int rating;
+                    try {
+                        rating = Integer.parseInt(value);
+                    } catch (NumberFormatException ex) {
+                        result.error(line, "Rating for " + e.getKey() + " is not a whole number: " + value);
+                        return;
+                    }
+                    if (rating < RatingAggregates.MIN_RATING || rating > RatingAggregates.MAX_RATING) {
+                        result.error(line, "Rating for " + e.getKey() + " must be 1-5: " + value);
+                        return;
+                    }
+                    ratings.put(e.getKey(), rating);
+                }
+                result.feedback.add(new Feedback(text(record.get("userName")), email, ratings,
+                        text(record.get("comments")), form.getId(), form.getTitle()));
+                result.feedbackLines.add(line);
+            }
+        }
+    }
+
+    private static final Set<String> FEEDBACK_COLUMNS = Set.of("formId", "formTitle", "userName", "userEmail", "comments");
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString().trim();
+    }
+
+    // --- Loading ---
+
+    private ImportResult load(RecordType type, List<ChunkResult> results, long bytes, long started) {
+        List<User> users = new ArrayList<>();
+        List<FormDefinition> forms = new ArrayList<>();
+        List<Feedback> feedback = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int errorCount = 0;
+
+        Set<String> usernames = new HashSet<>();
+        for (User user : dataService.getUsers()) usernames.add(user.getUsername());
+        Set<String> formIds = new HashSet<>();
+        for (FormDefinition form : dataService.getForms()) formIds.add(form.getId());
+        for (ChunkResult r : results) {
+            for (int i = 0; i < r.users.size(); i++) {
+                User user = r.users.get(i);
+                if (usernames.add(user.getUsername())) {
+                    users.add(user);
+                } else {
+                    r.error(r.userLines.get(i), "Username already exists: " + user.getUsername());
+                }
+            }
+            for (int i = 0; i < r.forms.size(); i++) {
+                FormDefinition form = r.forms.get(i);
+                if (formIds.add(form.getId())) {
+                    forms.add(form);
+                } else {
+                    r.error(r.formLines.get(i), "Form id already exists: " + form.getId());
+                }
+            }
+            // Same (form, email) rule as live submissions, against stored feedback and earlier rows
+            for (int i = 0; i < r.feedback.size(); i++) {
+                Feedback fb = r.feedback.get(i);
+                if (dataService.reserveFeedbackKey(fb)) {
+                    feedback.add(fb);
+                } else {
+                    r.error(r.feedbackLines.get(i), "Feedback from " + fb.getUserEmail() + " already exists for form " + fb.getFormId());
+                }
+            }
+            errorCount += r.errorCount;
+            for (String e : r.errors) if (errors.size() < MAX_REPORTED_ERRORS) errors.add(e);
+        }
+
+        try {
+            dataService.bulkLoad(users, forms, feedback);
+        } catch (RuntimeException e) {
+            feedback.forEach(dataService::releaseFeedbackKey);
+            throw e;
+        }
+        int loaded = users.size() + forms.size() + feedback.size();
+        return new ImportResult(type, loaded, errors, errorCount, bytes, System.nanoTime() - started);
+    }
+
+    static class ImportResult {
+        final RecordType type;
+        final int loaded;
+        final List<String> errors; // first MAX_REPORTED_ERRORS messages
+        final int errorCount;
+        final long bytes;
+        final long elapsedNanos;
+
+        ImportResult(RecordType type, int loaded, List<String> errors, int errorCount, long bytes, long elapsedNanos) {
+            this.type = type;
+            this.loaded = loaded;
+            this.errors = errors;
+            this.errorCount = errorCount;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (loaded + errorCount) * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %,d %s record(s), %,d rejected, in %.2f s (%,.0f records/s)",
+                    loaded, type.name().toLowerCase(Locale.ROOT), errorCount, elapsedNanos / 1e9, recordsPerSecond());
+        }
+    }
+
+    // --- Minimal readers ---
+
+    /** RFC 4180 style CSV: quoted fields may contain commas, newlines and "" escapes. */
+    private static class CsvReader {
+        private final String text;
+        private int pos;
+        private long line;
+
+        CsvReader(String text, long firstLine) {
+            this.text = text;
+            this.line = firstLine;
+        }
+
+        long getLine() { return line; }
+
+        List<String> next() {
+            if (pos >= text.length()) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (pos < text.length() && text.charAt(pos) == '"') {
+                            field.append('"');
+                            pos++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /** Just enough JSON for one record per line: objects, arrays, strings, numbers, booleans, null. */
+    private static class JsonParser {
+        private final String s;
+        private int pos;
+
+        JsonParser(String s) {
+            this.s = s;
+        }
+
+        Map<String, Object> parseObject() {
+            Object value = parseValue();
+            skipWhitespace();
+            if (!(value instanceof Map) || pos != s.length()) throw new IllegalArgumentException("expected a single object");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            return map;
+        }
+
+        private Object parseValue() {
+            skipWhitespace();
+            if (pos >= s.length()) throw new IllegalArgumentException("unexpected end");
+            char c = s.charAt(pos);
+            if (c == '{') {
+                pos++;
+                Map<String, Object> map = new LinkedHashMap<>();
+                skipWhitespace();
+                if (peek('}')) return map;
+                do {
+                    skipWhitespace();
+                    String key = parseString();
+                    skipWhitespace();
+                    expect(':');
+                    map.put(key, parseValue());
+                    skipWhitespace();
+                } while (peek(','));
+                expect('}');
+                return map;
+            }
+            if (c == '[') {
+                pos++;
+                List<Object> list = new ArrayList<>();
+                skipWhitespace();
+                if (peek(']')) return list;
+                do {
+                    list.add(parseValue());
+                    skipWhitespace();
+                } while (peek(','));
+                expect(']');
+                return list;
+            }
+            if (c == '"') return parseString();
+            int start = pos;
+            while (pos < s.length() && ",}] \t".indexOf(s.charAt(pos)) < 0) pos++;
+            String token = s.substring(start, pos);
+            if (token.equals("null")) return null;
+            if (token.equals("true") || token.equals("false")) return token;
+            try {
+                Double.parseDouble(token);
+                return token;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("unexpected token '" + token + "' at " + start);
+            }
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw new IllegalArgumentException("bad unicode escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e); // \" \\ \/
+                }
+            }
+            throw new IllegalArgumentException("unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        private boolean peek(char c) {
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw new IllegalArgumentException("expected '" + c + "' at " + pos);
+        }
+    }
+}
\ No newline at end of file
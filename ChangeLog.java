@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One ordered mutation of the DataService state. Every change to users, forms and
+ * feedback is expressed as a ChangeRecord so it can be logged and replayed elsewhere.
+ */
+class ChangeRecord {
+
+    enum Type { ADD_FEEDBACK, CLEAR_FEEDBACK, ADD_USER, DELETE_USER, UPDATE_PASSWORD, ADD_FORM, DELETE_FORM }
+
+    private final Type type;
+    private final Feedback feedback;
+    private final User user;
+    private final FormDefinition form;
+    private final String key;   // username or form id, depending on the type
+    private final String value; // new password hash for UPDATE_PASSWORD
+    private long sequence;
+
+    private ChangeRecord(Type type, Feedback feedback, User user, FormDefinition form, String key, String value) {
+        this.type = type;
+        this.feedback = feedback;
+        this.user = user;
+        this.form = form;
+        this.key = key;
+        this.value = value;
+    }
+
+    static ChangeRecord addFeedback(Feedback feedback) { return new ChangeRecord(Type.ADD_FEEDBACK, feedback, null, null, null, null); }
+    static ChangeRecord clearFeedback() { return new ChangeRecord(Type.CLEAR_FEEDBACK, null, null, null, null, null); }
+    static ChangeRecord addUser(User user) { return new ChangeRecord(Type.ADD_USER, null, user, null, null, null); }
+    static ChangeRecord deleteUser(String username) { return new ChangeRecord(Type.DELETE_USER, null, null, null, username, null); }
+    static ChangeRecord updatePassword(String username, String hash) { return new ChangeRecord(Type.UPDATE_PASSWORD, null, null, null, username, hash); }
+    static ChangeRecord addForm(FormDefinition form) { return new ChangeRecord(Type.ADD_FORM, null, null, form, null, null); }
+    static ChangeRecord deleteForm(String formId) { return new ChangeRecord(Type.DELETE_FORM, null, null, null, formId, null); }
+
+    public Type getType() { return type; }
+    public Feedback getFeedback() { return feedback; }
+    public User getUser() { return user; }
+    public FormDefinition getForm() { return form; }
+    public String getKey() { return key; }
+    public String getValue() { return value; }
+    public long getSequence() { return sequence; }
+
+    void setSequence(long sequence) { this.sequence = sequence; }
+}
+
+/**
+ * In-memory, ordered log of the most recent ChangeRecords.
+ *
+ * Sequence numbers start at 1 and have no gaps. Only the last RETAINED records are
+ * kept in a ring; a reader that falls further behind has to start again from a snapshot.
+ */
+class ChangeLog {
+
+    private static final int RETAINED = 100_000;
+
+    private final ChangeRecord[] ring = new ChangeRecord[RETAINED];
+    private long firstSequence = 1; // oldest sequence still in the ring
+    private long lastSequence = 0;  // 0 = nothing logged yet
+
+    /** Assigns the next sequence number to a locally made change. */
+    public synchronized long append(ChangeRecord record) {
+        record.setSequence(lastSequence + 1);
+        store(record);
+        return record.getSequence();
+    }
+
+    /** Appends a change that already carries its sequence number (e.g. received from a leader). */
+    public synchronized void appendReplicated(ChangeRecord record) {
+        if (record.getSequence() != lastSequence + 1) {
+            throw new IllegalStateException("Out of order change " + record.getSequence() + ", expected " + (lastSequence + 1));
+        }
+        store(record);
+    }
+
+    /** Drops every retained record and continues numbering after the given sequence. */
+    public synchronized void resetTo(long sequence) {
+        Arrays.fill(ring, null);
+        lastSequence = sequence;
+        firstSequence = sequence + 1;
+        notifyAll();
+    }
+
+    /**
+     * Forgets the records before the given sequence, so their payloads can be collected.
+     * Readers still behind it get null from awaitFrom and catch up from a snapshot.
+     */
+    public synchronized void truncateBefore(long sequence) {
+        for (long seq = firstSequence; seq < sequence && seq <= lastSequence; seq++) {
+            ring[(int) (seq % RETAINED)] = null;
+        }
+        firstSequence = Math.max(firstSequence, Math.min(sequence, lastSequence + 1));
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Returns up to max records starting at fromSequence, waiting up to timeoutMillis for at
+     * least one to arrive. Returns an empty list on timeout, or null if fromSequence is no
+     * longer retained and the reader must catch up from a snapshot.
+     */
+    public synchronized List<ChangeRecord> awaitFrom(long fromSequence, int max, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (fromSequence > lastSequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return new ArrayList<>();
+            wait(remaining);
+        }
+        if (fromSequence < firstSequence) return null;
+
+        int count = (int) Math.min(max, lastSequence - fromSequence + 1);
+        List<ChangeRecord> batch = new ArrayList<>(count);
+        for (long seq = fromSequence; seq < fromSequence + count; seq++) {
+            batch.add(ring[(int) (seq % RETAINED)]);
+        }
+        return batch;
+    }
+
+    private void store(ChangeRecord record) {
+        lastSequence = record.getSequence();
+        ring[(int) (lastSequence % RETAINED)] = record;
+        if (lastSequence - firstSequence >= RETAINED) {
+            firstSequence = lastSequence - RETAINED + 1;
+        }
+        notifyAll();
+    }
+}
\ No newline at end of file
@@ -1,10 +1,12 @@
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 
 class Feedback {
     private String userName;
@@ -13,6 +15,7 @@ class Feedback {
     private String comments;
     private String formId;
     private String formTitle;
+    private long sequence; // change log position at which this record was stored, 0 until then
 
     public Feedback(String userName, String userEmail, Map<String, Integer> ratings, String comments, String formId, String formTitle) {
         this.userName = userName;
@@ -23,21 +26,32 @@ class Feedback {
         this.formTitle = formTitle;
     }
 
+    // Used by views (e.g. ArenaFeedback) that keep their data outside these fields
+    protected Feedback() {}
+
     public String getUserName() { return userName; }
     public String getUserEmail() { return userEmail; }
     public Map<String, Integer> getRatings() { return ratings; }
     public String getComments() { return comments; }
     public String getFormId() { return formId; }
     public String getFormTitle() { return formTitle; }
+    public long getSequence() { return sequence; }
+
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    // Filters for full scans; ArenaFeedback answers them without decoding the record
+    public boolean formIdEquals(String formId) { return Objects.equals(getFormId(), formId); }
+    public boolean userEmailEqualsIgnoreCase(String email) { return getUserEmail() != null && getUserEmail().equalsIgnoreCase(email); }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("---------------------------------\n");
-        sb.append(" Form: ").append(formTitle).append("\n");
-        sb.append(" Name: ").append(userName).append("\n");
-        sb.append(" Email: ").append(userEmail).append("\n");
+        sb.append(" Form: ").append(getFormTitle()).append("\n");
+        sb.append(" Name: ").append(getUserName()).append("\n");
+        sb.append(" Email: ").append(getUserEmail()).append("\n");
         
+        Map<String, Integer> ratings = getRatings();
         if (ratings != null) {
             for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
                 sb.append(" Rating (").append(entry.getKey()).append("): ")
@@ -45,7 +59,7 @@ class Feedback {
             }
         }
         
-        sb.append(" Comments: ").append(comments).append("\n");
+        sb.append(" Comments: ").append(getComments()).append("\n");
         sb.append("---------------------------------\n\n");
         return sb.toString();
     }
@@ -78,7 +92,12 @@ class FormDefinition {
     private List<String> ratingCategories;
 
     public FormDefinition(String title, String description, List<String> ratingCategories) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), title, description, ratingCategories);
+    }
+
+    // Used when the id is already known, e.g. for forms received from a replication leader
+    FormDefinition(String id, String title, String description, List<String> ratingCategories) {
+        this.id = id;
         this.title = title;
         this.description = description;
         this.ratingCategories = ratingCategories;
@@ -102,6 +121,29 @@ public class DataService {
     private final List<Feedback> feedbackList = new CopyOnWriteArrayList<>();
     private final List<FormDefinition> formList = new CopyOnWriteArrayList<>();
 
+    // Optional off-heap storage mode, enabled with -Dfeedback.storage=offheap
+    private final boolean offHeapStorage = "offheap".equalsIgnoreCase(System.getProperty("feedback.storage"));
+    private volatile FeedbackArena feedbackArena = offHeapStorage ? new FeedbackArena() : null;
+
+    private final AuthService authService = new AuthService(this::findUser, this::upgradePasswordHash);
+
+    private final AdmissionController admissionController = new AdmissionController();
+
+    // Optional staged ingestion, enabled with -Dfeedback.ingest=pipeline
+    // (-Dfeedback.ingest.capacity=<slots>, -Dfeedback.ingest.policy=BLOCK|DROP|FAIL_FAST)
+    private final IngestionPipeline<Feedback> ingestionPipeline = createIngestionPipeline();
+
+    // Every mutation is applied and logged while holding this lock, so log order == apply order
+    private final ChangeLog changeLog = new ChangeLog();
+
+    // Read-side indexes, maintained in indexFeedback()/clearFeedbackIndexes()
+    private final RatingAggregates ratingAggregates = new RatingAggregates();
+    private final UserActivityIndex userActivity = new UserActivityIndex();
+    private final RatingIndex ratingIndex = new RatingIndex();
+    private volatile boolean readOnly;
+    // Identifies the sequence numbering of this store; followers take over their leader's id
+    private volatile String storeId = UUID.randomUUID().toString();
+
     private DataService() {
         addInitialUsers();
         addInitialForms();
@@ -115,20 +157,16 @@ public class DataService {
     }
 
     public String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return authService.hashPassword(password);
+    }
+
+    /** True if the value is a stored hash one of the password hashers can verify against. */
+    public boolean isPasswordHash(String storedHash) {
+        return authService.isPasswordHash(storedHash);
+    }
+
+    public AuthService getAuthService() {
+        return authService;
     }
 
     private void addInitialUsers() {
@@ -147,12 +185,12 @@ public class DataService {
     }
 
     public User authenticateUser(String username, String password) {
-        String hash = hashPassword(password);
-        if (hash == null) return null;
+        return authService.authenticate(username, password);
+    }
+
+    public User findUser(String username) {
         for (User user : userList) {
-            if (user.getUsername().equals(username) && user.getPasswordHash().equals(hash)) {
-                return user;
-            }
+            if (user.getUsername().equals(username)) return user;
         }
         return null;
     }
@@ -162,6 +200,7 @@ public class DataService {
     }
 
     public boolean addUser(String username, String password, String role) {
+        checkWritable();
         for (User user : userList) {
             if (user.getUsername().equals(username)) {
                 return false;
@@ -169,45 +208,205 @@ public class DataService {
         }
         String hash = hashPassword(password);
         if (hash == null) return false;
-        userList.add(new User(username, hash, role));
+        commit(ChangeRecord.addUser(new User(username, hash, role)));
         return true;
     }
 
+    // Called by AuthService after a login re-hashed an older password hash
+    private void upgradePasswordHash(String username, String hash) {
+        if (!readOnly) commit(ChangeRecord.updatePassword(username, hash));
+    }
+
     public void deleteUser(String username) {
-        userList.removeIf(user -> user.getUsername().equals(username));
+        checkWritable();
+        commit(ChangeRecord.deleteUser(username));
     }
     
     public boolean updateUserPassword(String username, String newPassword) {
+        checkWritable();
         String hash = hashPassword(newPassword);
         if (hash == null) return false;
         for (User user : userList) {
             if (user.getUsername().equals(username)) {
-                user.setPasswordHash(hash);
+                commit(ChangeRecord.updatePassword(username, hash));
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Entry point for user submissions: runs the admission checks (duplicate filter,
+     * rate limits, overload) and only stores the feedback if it is accepted.
+     * Rate limits per user apply to the logged-in account, whatever name the form carries.
+     */
+    public AdmissionController.Decision submitFeedback(User account, Feedback feedback) {
+        AdmissionController.Decision decision = admissionController.admit(account, feedback);
+        if (!decision.isAccepted()) return decision;
+        try {
+            if (ingestionPipeline == null) {
+                addFeedback(feedback);
+                return decision;
+            }
+            checkWritable();
+            if (ingestionPipeline.publish(feedback)) return decision;
+        } catch (RejectedExecutionException e) {
+            // FAIL_FAST policy: fall through to the same overload answer as DROP
+        } catch (RuntimeException e) {
+            admissionController.release(feedback);
+            throw e;
+        }
+        // Not queued, so the (form, email) key must not stay reserved
+        admissionController.release(feedback);
+        if (ingestionPipeline.getFailure() != null) {
+            return AdmissionController.Decision.reject(AdmissionController.Outcome.OVERLOADED, 0, "Submissions cannot be stored right now.");
+        }
+        return AdmissionController.Decision.reject(AdmissionController.Outcome.OVERLOADED, 1000, "The submission queue is full.");
+    }
+
+    private IngestionPipeline<Feedback> createIngestionPipeline() {
+        if (!"pipeline".equalsIgnoreCase(System.getProperty("feedback.ingest"))) return null;
+        int capacity = Integer.getInteger("feedback.ingest.capacity", 8192);
+        IngestionPipeline.BackpressurePolicy policy = IngestionPipeline.BackpressurePolicy.valueOf(
+                System.getProperty("feedback.ingest.policy", "BLOCK").toUpperCase(Locale.ROOT));
+        // Submissions that could not be stored give their (form, email) key back so they can be resent
+        return new IngestionPipeline<>("feedback-ingest", capacity, policy, this::addFeedbackBatch,
+                failed -> failed.forEach(admissionController::release));
+    }
+
+    /** Claims the (form, email) key of feedback about to be bulk loaded; false if it is already taken. */
+    public boolean reserveFeedbackKey(Feedback feedback) {
+        return admissionController.reserve(feedback);
+    }
+
+    public void releaseFeedbackKey(Feedback feedback) {
+        admissionController.release(feedback);
+    }
+
+    public IngestionPipeline<Feedback> getIngestionPipeline() {
+        return ingestionPipeline;
+    }
+
     public void addFeedback(Feedback feedback) {
-        feedbackList.add(feedback);
+        checkWritable();
+        FeedbackEvents.AddFeedback event = new FeedbackEvents.AddFeedback();
+        event.begin();
+        commit(ChangeRecord.addFeedback(store(feedback)));
+        if (event.shouldCommit()) {
+            event.formId = feedback.getFormId();
+            event.records = 1;
+            event.commit();
+        }
+    }
+
+    /** Stores a whole batch under one lock and a single copy of the feedback list. */
+    public void addFeedbackBatch(List<Feedback> batch) {
+        checkWritable();
+        FeedbackEvents.AddFeedback event = new FeedbackEvents.AddFeedback();
+        event.begin();
+        List<Feedback> stored = new ArrayList<>(batch.size());
+        for (Feedback fb : batch) stored.add(store(fb));
+        synchronized (changeLog) {
+            for (Feedback fb : stored) {
+                fb.setSequence(changeLog.append(ChangeRecord.addFeedback(fb)));
+                indexFeedback(fb);
+            }
+            feedbackList.addAll(stored);
+        }
+        commitEvent(event, batch);
+    }
+
+    /**
+     * Loads imported users, forms and feedback in one pass under one lock. Every record is
+     * still written to the change log, so replicas and incremental exports pick it up.
+     */
+    public void bulkLoad(List<User> users, List<FormDefinition> forms, List<Feedback> feedback) {
+        checkWritable();
+        FeedbackEvents.AddFeedback event = new FeedbackEvents.AddFeedback();
+        event.begin();
+        List<Feedback> stored = new ArrayList<>(feedback.size());
+        for (Feedback fb : feedback) stored.add(store(fb));
+        synchronized (changeLog) {
+            for (User user : users) changeLog.append(ChangeRecord.addUser(user));
+            userList.addAll(users);
+            for (FormDefinition form : forms) changeLog.append(ChangeRecord.addForm(form));
+            formList.addAll(forms);
+            for (Feedback fb : stored) {
+                fb.setSequence(changeLog.append(ChangeRecord.addFeedback(fb)));
+                indexFeedback(fb);
+            }
+            feedbackList.addAll(stored);
+        }
+        commitEvent(event, feedback);
+    }
+
+    // A batch may span forms; the event then carries an empty form id
+    private static void commitEvent(FeedbackEvents.AddFeedback event, List<Feedback> batch) {
+        if (batch.isEmpty() || !event.shouldCommit()) return;
+        String formId = batch.get(0).getFormId();
+        for (Feedback fb : batch) {
+            if (!formId.equals(fb.getFormId())) {
+                formId = "";
+                break;
+            }
+        }
+        event.formId = formId;
+        event.records = batch.size();
+        event.commit();
     }
 
     public List<Feedback> getFeedback() {
         return feedbackList;
     }
+
+    /** Feedback stored after the given change log sequence, oldest first. */
+    public List<Feedback> getFeedbackSince(long sequence) {
+        while (true) {
+            try {
+                // The list is kept in sequence order, so the delta starts at a binary-searched index
+                int low = 0, high = feedbackList.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (feedbackList.get(mid).getSequence() <= sequence) low = mid + 1;
+                    else high = mid;
+                }
+                List<Feedback> delta = new ArrayList<>();
+                for (Iterator<Feedback> it = feedbackList.listIterator(low); it.hasNext(); ) {
+                    Feedback fb = it.next();
+                    if (fb.getSequence() > sequence) delta.add(fb);
+                }
+                return delta;
+            } catch (IndexOutOfBoundsException e) {
+                // feedback was cleared while searching; search the new contents
+            }
+        }
+    }
     
     public boolean hasUserSubmittedForm(User user, FormDefinition form) {
-        for (Feedback fb : feedbackList) {
-            if (fb.getFormId().equals(form.getId()) && fb.getUserName().equals(user.getUsername())) {
-                return true;
-            }
+        FeedbackEvents.SubmissionCheck event = new FeedbackEvents.SubmissionCheck();
+        event.begin();
+        boolean submitted = userActivity.hasSubmitted(user.getUsername(), form.getId());
+        if (event.shouldCommit()) {
+            event.formId = form.getId();
+            event.username = user.getUsername();
+            event.records = userActivity.getSubmissions(user.getUsername()).size();
+            event.submitted = submitted;
+            event.commit();
         }
-        return false;
+        return submitted;
     }
 
     public void clearAllFeedback() {
-        feedbackList.clear();
+        checkWritable();
+        commit(ChangeRecord.clearFeedback());
+    }
+
+    public boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    public FeedbackArena getFeedbackArena() {
+        return feedbackArena;
     }
     
     public List<FormDefinition> getForms() {
@@ -215,10 +414,179 @@ public class DataService {
     }
     
     public void addForm(String title, String description, List<String> ratingCategories) {
-        formList.add(new FormDefinition(title, description, ratingCategories));
+        checkWritable();
+        commit(ChangeRecord.addForm(new FormDefinition(title, description, ratingCategories)));
     }
     
     public void deleteForm(FormDefinition form) {
-        formList.remove(form);
+        checkWritable();
+        commit(ChangeRecord.deleteForm(form.getId()));
+    }
+
+    // --- CHANGE LOG & REPLICATION ---
+
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /** A replication follower only changes through applyReplicated/loadSnapshot. */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new IllegalStateException("This DataService is a read-only replica.");
+    }
+
+    private void commit(ChangeRecord change) {
+        synchronized (changeLog) {
+            changeLog.append(change);
+            apply(change);
+        }
+    }
+
+    /** Applies a change received from a replication leader, keeping the leader's sequence number. */
+    public void applyReplicated(ChangeRecord change) {
+        synchronized (changeLog) {
+            if (change.getSequence() <= changeLog.getLastSequence()) return; // already applied
+            if (change.getType() == ChangeRecord.Type.ADD_FEEDBACK) {
+                ChangeRecord stored = ChangeRecord.addFeedback(store(change.getFeedback()));
+                stored.setSequence(change.getSequence());
+                change = stored;
+            }
+            changeLog.appendReplicated(change);
+            apply(change);
+        }
+    }
+
+    // Moves the record into the off-heap arena when that storage mode is enabled
+    private Feedback store(Feedback feedback) {
+        FeedbackArena arena = feedbackArena;
+        return arena != null ? arena.store(feedback) : feedback;
+    }
+
+    private void apply(ChangeRecord change) {
+        switch (change.getType()) {
+            case ADD_FEEDBACK:
+                change.getFeedback().setSequence(change.getSequence());
+                indexFeedback(change.getFeedback());
+                feedbackList.add(change.getFeedback());
+                break;
+            case CLEAR_FEEDBACK:
+                feedbackList.clear();
+                clearFeedbackIndexes();
+                admissionController.reset();
+                // The log would otherwise keep every cleared record (and with it the old arena)
+                // reachable until overwritten; anyone behind the clear needs a snapshot anyway
+                if (change.getSequence() > 0) changeLog.truncateBefore(change.getSequence());
+                // Swap in a fresh arena; views still held elsewhere keep the old one alive until released
+                if (offHeapStorage) feedbackArena = new FeedbackArena();
+                break;
+            case ADD_USER:
+                userList.add(change.getUser());
+                break;
+            case DELETE_USER:
+                userList.removeIf(user -> user.getUsername().equals(change.getKey()));
+                authService.invalidate(change.getKey());
+                break;
+            case UPDATE_PASSWORD:
+                for (User user : userList) {
+                    if (user.getUsername().equals(change.getKey())) user.setPasswordHash(change.getValue());
+                }
+                authService.invalidate(change.getKey());
+                break;
+            case ADD_FORM:
+                formList.add(change.getForm());
+                break;
+            case DELETE_FORM:
+                formList.removeIf(form -> form.getId().equals(change.getKey()));
+                ratingAggregates.removeForm(change.getKey());
+                ratingIndex.removeForm(change.getKey());
+                break;
+        }
+    }
+
+    // Called with the change log lock held, before the record becomes visible in feedbackList
+    private void indexFeedback(Feedback feedback) {
+        ratingAggregates.add(feedback);
+        userActivity.add(feedback);
+        ratingIndex.add(feedback);
+        admissionController.remember(feedback);
+    }
+
+    private void clearFeedbackIndexes() {
+        ratingAggregates.clear();
+        userActivity.clear();
+        ratingIndex.clear();
+    }
+
+    public RatingAggregates getRatingAggregates() {
+        return ratingAggregates;
+    }
+
+    public UserActivityIndex getUserActivity() {
+        return userActivity;
+    }
+
+    public RatingIndex getRatingIndex() {
+        return ratingIndex;
+    }
+
+    /** Consistent copy of the whole store at one change log position. */
+    public Snapshot takeSnapshot() {
+        synchronized (changeLog) {
+            return new Snapshot(storeId, changeLog.getLastSequence(), new ArrayList<>(userList), new ArrayList<>(formList), new ArrayList<>(feedbackList));
+        }
+    }
+
+    /** Replaces the whole store with a snapshot; the change log continues after its sequence. */
+    public void loadSnapshot(Snapshot snapshot) {
+        synchronized (changeLog) {
+            apply(ChangeRecord.clearFeedback());
+            userList.clear();
+            userList.addAll(snapshot.getUsers());
+            formList.clear();
+            formList.addAll(snapshot.getForms());
+            List<Feedback> stored = new ArrayList<>(snapshot.getFeedback().size());
+            for (Feedback fb : snapshot.getFeedback()) {
+                Feedback copy = store(fb);
+                copy.setSequence(fb.getSequence());
+                indexFeedback(copy);
+                stored.add(copy);
+            }
+            feedbackList.addAll(stored); // one copy of the backing array instead of one per record
+            changeLog.resetTo(snapshot.getSequence());
+            storeId = snapshot.getStoreId();
+        }
+    }
+
+    static class Snapshot {
+        private final String storeId;
+        private final long sequence;
+        private final List<User> users;
+        private final List<FormDefinition> forms;
+        private final List<Feedback> feedback;
+
+        Snapshot(String storeId, long sequence, List<User> users, List<FormDefinition> forms, List<Feedback> feedback) {
+            this.storeId = storeId;
+            this.sequence = sequence;
+            this.users = users;
+            this.forms = forms;
+            this.feedback = feedback;
+        }
+
+        public String getStoreId() { return storeId; }
+        public long getSequence() { return sequence; }
+        public List<User> getUsers() { return users; }
+        public List<FormDefinition> getForms() { return forms; }
+        public List<Feedback> getFeedback() { return feedback; }
     }
 }
\ No newline at end of file
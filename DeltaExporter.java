@@ -0,0 +1,158 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental export of feedback into a directory of segment files.
+ *
+ * Each run writes only the feedback stored since the last successful run into a new
+ * segment-<store>-<fromSeq>-<toSeq>.txt file, then records it in manifest.txt.
+ * Sequence numbers restart with every new DataService, so checkpoints are kept per store id.
+ *
+ * The manifest is the only source of truth and is replaced atomically, so a crash at any
+ * point leaves either the old or the new checkpoint. Segment files the manifest doesn't list
+ * are leftovers of an interrupted run and are deleted before the next one; only names this
+ * class writes are touched, so other files in the directory are left alone.
+ */
+class DeltaExporter {
+
+    static final String MANIFEST = "manifest.txt";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-[0-9a-f]{8}-\\d+-\\d+\\.txt(\\.tmp)?");
+
+    private final DataService dataService;
+    private final Path directory;
+
+    DeltaExporter(DataService dataService, Path directory) {
+        this.dataService = dataService;
+        this.directory = directory;
+    }
+
+    /** Writes everything stored since the last checkpoint. Returns the new segment, or null if there was nothing new. */
+    public synchronized Segment export() throws IOException {
+        FeedbackEvents.Export event = new FeedbackEvents.Export();
+        event.begin();
+        Files.createDirectories(directory);
+        List<Segment> segments = readManifest();
+        String store = dataService.getStoreId();
+        long checkpoint = checkpointOf(segments, store);
+        removeUnlistedFiles(segments);
+
+        List<Feedback> delta = dataService.getFeedbackSince(checkpoint);
+        if (delta.isEmpty()) return null;
+
+        long from = delta.get(0).getSequence();
+        long to = delta.get(delta.size() - 1).getSequence();
+        String name = SEGMENT_PREFIX + store.substring(0, 8) + "-" + from + "-" + to + ".txt";
+        Path tmp = directory.resolve(name + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 1 << 16);
+            for (Feedback fb : delta) writer.write(fb.toString());
+            writer.flush();
+            channel.force(true); // segment must be durable before the manifest points at it
+        }
+        Path segmentFile = directory.resolve(name);
+        Files.move(tmp, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Segment segment = new Segment(name, store, from, to, delta.size(), Files.size(segmentFile));
+        segments.add(segment);
+        writeManifest(segments);
+        if (event.shouldCommit()) {
+            event.kind = "incremental";
+            event.records = segment.recordCount;
+            event.bytes = segment.bytes;
+            event.commit();
+        }
+        return segment;
+    }
+
+    /** Sequence of the last exported record of the current store, or 0 if nothing was exported yet. */
+    public long getCheckpoint() throws IOException {
+        return checkpointOf(readManifest(), dataService.getStoreId());
+    }
+
+    private static long checkpointOf(List<Segment> segments, String store) {
+        long checkpoint = 0;
+        for (Segment s : segments) {
+            if (s.store.equals(store)) checkpoint = Math.max(checkpoint, s.toSequence);
+        }
+        return checkpoint;
+    }
+
+    public List<Segment> readManifest() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) return segments;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 6 && parts[0].startsWith(SEGMENT_PREFIX)) {
+                segments.add(new Segment(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]),
+                        Integer.parseInt(parts[4]), Long.parseLong(parts[5])));
+            }
+        }
+        return segments;
+    }
+
+    private void writeManifest(List<Segment> segments) throws IOException {
+        StringBuilder sb = new StringBuilder("# segment store fromSeq toSeq records bytes\n");
+        for (Segment s : segments) {
+            sb.append(s.name).append(' ').append(s.store).append(' ').append(s.fromSequence).append(' ').append(s.toSequence).append(' ')
+              .append(s.recordCount).append(' ').append(s.bytes).append('\n');
+        }
+        Path tmp = directory.resolve(MANIFEST + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(StandardCharsets.UTF_8.encode(sb.toString()));
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void removeUnlistedFiles(List<Segment> segments) throws IOException {
+        Set<String> listed = new HashSet<>();
+        for (Segment s : segments) listed.add(s.name);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (SEGMENT_NAME.matcher(name).matches() && !listed.contains(name)) Files.delete(file);
+            }
+        }
+        Files.deleteIfExists(directory.resolve(MANIFEST + ".tmp"));
+    }
+
+    static class Segment {
+        final String name;
+        final String store;
+        final long fromSequence;
+        final long toSequence;
+        final int recordCount;
+        final long bytes;
+
+        Segment(String name, String store, long fromSequence, long toSequence, int recordCount, long bytes) {
+            this.name = name;
+            this.store = store;
+            this.fromSequence = fromSequence;
+            this.toSequence = toSequence;
+            this.recordCount = recordCount;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + recordCount + " records, " + bytes + " bytes)";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only off-heap store for feedback records.
+ *
+ * Records are encoded into direct ByteBuffer chunks using a compact binary layout
+ * (length-prefixed UTF-8 strings followed by the ratings), so the heap only holds
+ * one small ArenaFeedback view per record instead of every String and Map.
+ *
+ * Record layout:
+ *   formId, formTitle, userName, userEmail, comments : [int length][UTF-8 bytes] (length -1 = null)
+ *   ratings                                          : [int count] then count x ([int length][UTF-8 category][int rating])
+ */
+class FeedbackArena {
+
+    private static final int CHUNK_SIZE = 1 << 20; // 1 MiB per chunk
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private ByteBuffer current;
+    private int recordCount;
+    private long bytesUsed;
+
+    /** Encodes the feedback off-heap and returns a flyweight view over the stored bytes. */
+    public synchronized Feedback store(Feedback feedback) {
+        byte[] formId = encode(feedback.getFormId());
+        byte[] formTitle = encode(feedback.getFormTitle());
+        byte[] userName = encode(feedback.getUserName());
+        byte[] userEmail = encode(feedback.getUserEmail());
+        byte[] comments = encode(feedback.getComments());
+
+        Map<String, Integer> ratings = feedback.getRatings();
+        int size = fieldSize(formId) + fieldSize(formTitle) + fieldSize(userName)
+                + fieldSize(userEmail) + fieldSize(comments) + Integer.BYTES;
+        byte[][] categories = null;
+        int[] values = null;
+        if (ratings != null) {
+            categories = new byte[ratings.size()][];
+            values = new int[ratings.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
+                categories[i] = encode(entry.getKey());
+                values[i] = entry.getValue() == null ? 0 : entry.getValue();
+                size += fieldSize(categories[i]) + Integer.BYTES;
+                i++;
+            }
+        }
+
+        ByteBuffer buf = reserve(size);
+        int offset = buf.position();
+        putField(buf, formId);
+        putField(buf, formTitle);
+        putField(buf, userName);
+        putField(buf, userEmail);
+        putField(buf, comments);
+        if (ratings == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(categories.length);
+            for (int i = 0; i < categories.length; i++) {
+                putField(buf, categories[i]);
+                buf.putInt(values[i]);
+            }
+        }
+
+        recordCount++;
+        bytesUsed += size;
+        long address = ((long) (chunks.length - 1) << 32) | offset;
+        return new ArenaFeedback(this, address);
+    }
+
+    public synchronized int getRecordCount() { return recordCount; }
+    public synchronized long getBytesUsed() { return bytesUsed; }
+    public synchronized long getBytesReserved() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) total += chunk.capacity();
+        return total;
+    }
+
+    private ByteBuffer reserve(int size) {
+        if (current == null || current.remaining() < size) {
+            // Oversized records (e.g. very long comments) get a dedicated chunk
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, size));
+            ByteBuffer[] grown = new ByteBuffer[chunks.length + 1];
+            System.arraycopy(chunks, 0, grown, 0, chunks.length);
+            grown[chunks.length] = current;
+            chunks = grown;
+        }
+        return current;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int fieldSize(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putField(ByteBuffer buf, byte[] bytes) {
+        if (bytes == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        }
+    }
+
+    // --- Readers used by the flyweight views (absolute gets only, safe for concurrent readers) ---
+
+    private ByteBuffer chunkOf(long address) {
+        return chunks[(int) (address >>> 32)];
+    }
+
+    /** Returns the position of the given field (0 = formId ... 5 = ratings) within its chunk. */
+    private int fieldOffset(ByteBuffer chunk, long address, int field) {
+        int pos = (int) address;
+        for (int i = 0; i < field; i++) {
+            int len = chunk.getInt(pos);
+            pos += Integer.BYTES + Math.max(len, 0);
+        }
+        return pos;
+    }
+
+    private static String readString(ByteBuffer chunk, int pos) {
+        int len = chunk.getInt(pos);
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        chunk.get(pos + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String readField(long address, int field) {
+        ByteBuffer chunk = chunkOf(address);
+        return readString(chunk, fieldOffset(chunk, address, field));
+    }
+
+    /**
+     * Compares a string field with a value without creating a String. ASCII text (ids,
+     * almost all emails) is compared byte by byte; anything else falls back to decoding.
+     */
+    boolean fieldEquals(long address, int field, String value, boolean ignoreCase) {
+        ByteBuffer chunk = chunkOf(address);
+        int pos = fieldOffset(chunk, address, field);
+        int len = chunk.getInt(pos);
+        if (len < 0 || value == null) return len < 0 && value == null;
+        pos += Integer.BYTES;
+        if (len == value.length()) {
+            for (int i = 0; i < len; i++) {
+                int b = chunk.get(pos + i);
+                char c = value.charAt(i);
+                if (b < 0 || c >= 0x80) return decodedEquals(chunk, pos - Integer.BYTES, value, ignoreCase);
+                if (b != c && !(ignoreCase && toLowerAscii(b) == toLowerAscii(c))) return false;
+            }
+            return true;
+        }
+        // Different lengths can only match if either side has non-ASCII characters
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return decodedEquals(chunk, pos - Integer.BYTES, value, ignoreCase);
+        }
+        if (!ignoreCase) return false;
+        for (int i = 0; i < len; i++) {
+            if (chunk.get(pos + i) < 0) return decodedEquals(chunk, pos - Integer.BYTES, value, ignoreCase);
+        }
+        return false;
+    }
+
+    private static boolean decodedEquals(ByteBuffer chunk, int pos, String value, boolean ignoreCase) {
+        String stored = readString(chunk, pos);
+        return ignoreCase ? value.equalsIgnoreCase(stored) : value.equals(stored);
+    }
+
+    private static int toLowerAscii(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    Map<String, Integer> readRatings(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int pos = fieldOffset(chunk, address, ArenaFeedback.RATINGS);
+        int count = chunk.getInt(pos);
+        if (count < 0) return null;
+        pos += Integer.BYTES;
+        Map<String, Integer> ratings = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int len = chunk.getInt(pos);
+            String category = readString(chunk, pos);
+            pos += Integer.BYTES + Math.max(len, 0);
+            ratings.put(category, chunk.getInt(pos));
+            pos += Integer.BYTES;
+        }
+        return Collections.unmodifiableMap(ratings);
+    }
+}
+
+/** Flyweight Feedback whose data lives in a FeedbackArena; each getter decodes on demand. */
+class ArenaFeedback extends Feedback {
+    static final int FORM_ID = 0;
+    static final int FORM_TITLE = 1;
+    static final int USER_NAME = 2;
+    static final int USER_EMAIL = 3;
+    static final int COMMENTS = 4;
+    static final int RATINGS = 5;
+
+    private final FeedbackArena arena;
+    private final long address;
+
+    ArenaFeedback(FeedbackArena arena, long address) {
+        this.arena = arena;
+        this.address = address;
+    }
+
+    @Override public String getUserName() { return arena.readField(address, USER_NAME); }
+    @Override public String getUserEmail() { return arena.readField(address, USER_EMAIL); }
+    @Override public Map<String, Integer> getRatings() { return arena.readRatings(address); }
+    @Override public String getComments() { return arena.readField(address, COMMENTS); }
+    @Override public String getFormId() { return arena.readField(address, FORM_ID); }
+    @Override public String getFormTitle() { return arena.readField(address, FORM_TITLE); }
+
+    @Override public boolean formIdEquals(String formId) { return arena.fieldEquals(address, FORM_ID, formId, false); }
+    @Override public boolean userEmailEqualsIgnoreCase(String email) {
+        return email != null && arena.fieldEquals(address, USER_EMAIL, email, true);
+    }
+}
\ No newline at end of file
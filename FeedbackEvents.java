@@ -0,0 +1,124 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Custom Flight Recorder events for the store, login and admin paths.
+ *
+ * The duration of each event is the time between begin() and commit(). Callers set the
+ * fields only when shouldCommit() is true, so a disabled event costs next to nothing.
+ * View them with JDK Mission Control or " jfr print --categories 'Feedback System' <file> ".
+ */
+final class FeedbackEvents {
+
+    private FeedbackEvents() {}
+
+    @Name("feedback.AddFeedback")
+    @Label("Add Feedback")
+    @Category({"Feedback System", "Store"})
+    @Description("Feedback stored through addFeedback, a pipeline batch or a bulk load")
+    static class AddFeedback extends Event {
+        @Label("Form Id")
+        String formId;
+
+        @Label("Records")
+        int records;
+    }
+
+    @Name("feedback.Authenticate")
+    @Label("Authenticate")
+    @Category({"Feedback System", "Auth"})
+    static class Authenticate extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Session Hit")
+        @Description("Verified from the session cache instead of the password hash")
+        boolean sessionHit;
+    }
+
+    @Name("feedback.SubmissionCheck")
+    @Label("Has User Submitted Form")
+    @Category({"Feedback System", "Store"})
+    static class SubmissionCheck extends Event {
+        @Label("Form Id")
+        String formId;
+
+        @Label("Username")
+        String username;
+
+        @Label("Forms Of User")
+        int records;
+
+        @Label("Submitted")
+        boolean submitted;
+    }
+
+    @Name("feedback.TableRefresh")
+    @Label("Feedback Table Refresh")
+    @Category({"Feedback System", "Admin UI"})
+    static class TableRefresh extends Event {
+        @Label("Form Id")
+        String formId;
+
+        @Label("Records Scanned")
+        int scanned;
+
+        @Label("Rows")
+        int records;
+    }
+
+    @Name("feedback.TableFilter")
+    @Label("Feedback Table Filter")
+    @Category({"Feedback System", "Admin UI"})
+    static class TableFilter extends Event {
+        @Label("Form Id")
+        String formId;
+
+        @Label("Rows")
+        int records;
+
+        @Label("Matching Rows")
+        int matches;
+    }
+
+    @Name("feedback.Export")
+    @Label("Feedback Export")
+    @Category({"Feedback System", "Export"})
+    static class Export extends Event {
+        @Label("Kind")
+        @Description("full or incremental")
+        String kind;
+
+        @Label("Records")
+        int records;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("feedback.BulkImport")
+    @Label("Bulk Import")
+    @Category({"Feedback System", "Store"})
+    static class BulkImport extends Event {
+        @Label("Record Type")
+        String recordType;
+
+        @Label("Records")
+        int records;
+
+        @Label("Rejected")
+        int rejected;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+    }
+}
\ No newline at end of file
@@ -8,14 +8,17 @@ import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Vector;
 
 public class FeedbackSystem {
 
@@ -44,6 +47,7 @@ public class FeedbackSystem {
         UIManager.put("Table.font", new Font("Segoe UI", Font.PLAIN, 12));
         UIManager.put("TableHeader.font", new Font("Segoe UI", Font.BOLD, 13));
 
+        FlightRecorderControl.startIfConfigured();
         SwingUtilities.invokeLater(FeedbackSystem::showRoleSelectionScreen);
     }
 
@@ -86,48 +90,39 @@ public class FeedbackSystem {
 
         if (selectedRole == null) {
             System.exit(0);
-        } else if ("ADMIN".equals(selectedRole)) {
-            showLoginScreen("ADMIN", null);
         } else {
-            showFormSelectionScreen();
+            showLoginScreen(selectedRole);
         }
     }
-    
-    private static void showFormSelectionScreen() {
-        FormSelectionDialog formDialog = new FormSelectionDialog(null);
-        formDialog.setVisible(true);
-        FormDefinition selectedForm = formDialog.getSelectedForm();
+
+    private static void showLoginScreen(String role) {
+        LoginDialog loginDlg = new LoginDialog(null, role);
+        loginDlg.setVisible(true);
+        User user = loginDlg.getAuthenticatedUser();
         
-        if (selectedForm != null) {
-            showLoginScreen("USER", selectedForm);
-        } else {
+        if (user == null) {
             showRoleSelectionScreen();
+        } else if ("ADMIN".equals(role)) {
+            new AdminDashboard(user).setVisible(true);
+        } else {
+            showFormSelectionScreen(user);
         }
     }
 
-    private static void showLoginScreen(String role, FormDefinition form) {
-        LoginDialog loginDlg = new LoginDialog(null, role);
-        loginDlg.setVisible(true);
-        User user = loginDlg.getAuthenticatedUser();
+    // Users log in first, so the picker can already mark the forms they have answered
+    private static void showFormSelectionScreen(User user) {
+        FormSelectionDialog formDialog = new FormSelectionDialog(null, user);
+        formDialog.setVisible(true);
+        FormDefinition selectedForm = formDialog.getSelectedForm();
         
-        if (user != null) {
-            if ("ADMIN".equals(role)) {
-                new AdminDashboard(user).setVisible(true);
-            } else {
-                boolean submitted = DataService.getInstance().hasUserSubmittedForm(user, form);
-                if (submitted) {
-                    JOptionPane.showMessageDialog(null, "You have already submitted feedback for this form.", "Already Submitted", JOptionPane.WARNING_MESSAGE);
-                    showFormSelectionScreen();
-                } else {
-                    new FeedbackForm(user, form).setVisible(true);
-                }
-            }
+        if (selectedForm == null) {
+            showRoleSelectionScreen();
+        } else if (DataService.getInstance().hasUserSubmittedForm(user, selectedForm)) {
+            // Possible if a queued submission was stored while the picker was open
+            JOptionPane.showMessageDialog(null, "You have already submitted feedback for this form.", "Already Submitted", JOptionPane.WARNING_MESSAGE);
+            showFormSelectionScreen(user);
         } else {
-            if ("ADMIN".equals(role)) {
-                showRoleSelectionScreen();
-            } else {
-                showFormSelectionScreen();
-            }
+            new FeedbackForm(user, selectedForm).setVisible(true);
         }
     }
 
@@ -177,10 +172,12 @@ public class FeedbackSystem {
     private static class FormSelectionDialog extends JDialog {
         private FormDefinition selectedForm = null;
 
-        public FormSelectionDialog(Frame parent) {
+        public FormSelectionDialog(Frame parent, User user) {
             super(parent, "Select Feedback Form", true);
             getContentPane().setBackground(BG_COLOR);
             
+            // One index lookup for the user instead of a scan of all feedback per form
+            Map<String, Integer> answered = DataService.getInstance().getUserActivity().getSubmissions(user.getUsername());
             DefaultListModel<FormDefinition> listModel = new DefaultListModel<>();
             DataService.getInstance().getForms().forEach(listModel::addElement);
             
@@ -188,14 +185,25 @@ public class FeedbackSystem {
             formList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
             formList.setFont(new Font("Segoe UI", Font.PLAIN, 14));
             formList.setFixedCellHeight(30);
+            formList.setCellRenderer(new DefaultListCellRenderer() {
+                @Override
+                public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                    FormDefinition form = (FormDefinition) value;
+                    boolean done = answered.containsKey(form.getId());
+                    super.getListCellRendererComponent(list, done ? form + "  (already answered)" : form, index, isSelected && !done, cellHasFocus);
+                    if (done) setForeground(Color.GRAY);
+                    return this;
+                }
+            });
             
-            JButton selectButton = new JButton("Select & Login");
+            JButton selectButton = new JButton("Open Form");
             styleButton(selectButton, BTN_GREEN); // Solid Green
             selectButton.setEnabled(false);
             
             formList.addListSelectionListener(e -> {
                 if (!e.getValueIsAdjusting()) {
-                    selectButton.setEnabled(formList.getSelectedIndex() != -1);
+                    FormDefinition selected = formList.getSelectedValue();
+                    selectButton.setEnabled(selected != null && !answered.containsKey(selected.getId()));
                 }
             });
             
@@ -208,7 +216,11 @@ public class FeedbackSystem {
             mainPanel.setBackground(BG_COLOR);
             mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
-            JLabel titleLbl = new JLabel("Available Feedback Forms:");
+            int open = 0;
+            for (int i = 0; i < listModel.size(); i++) {
+                if (!answered.containsKey(listModel.get(i).getId())) open++;
+            }
+            JLabel titleLbl = new JLabel("Feedback forms for " + user.getUsername() + " (" + open + " of " + listModel.size() + " still open):");
             titleLbl.setFont(new Font("Segoe UI", Font.BOLD, 14));
             mainPanel.add(titleLbl, BorderLayout.NORTH);
             
@@ -217,7 +229,7 @@ public class FeedbackSystem {
             JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
             buttonPanel.setBackground(BG_COLOR);
             
-            JButton cancelButton = new JButton("Back");
+            JButton cancelButton = new JButton("Logout");
             styleButton(cancelButton, BTN_RED); // Solid Red
             cancelButton.addActionListener(e -> {
                 selectedForm = null;
@@ -239,6 +251,7 @@ public class FeedbackSystem {
     private static class LoginDialog extends JDialog {
         private final JTextField tfUsername;
         private final JPasswordField pfPassword;
+        private final JButton btnLogin;
         private User authenticatedUser;
         private final String expectedRole;
 
@@ -265,7 +278,7 @@ public class FeedbackSystem {
             pfPassword = new JPasswordField(20);
             cs.gridx = 1; panel.add(pfPassword, cs);
 
-            JButton btnLogin = new JButton("Login");
+            btnLogin = new JButton("Login");
             styleButton(btnLogin, BTN_GREEN); // Solid Green
             btnLogin.addActionListener(e -> onLogin());
 
@@ -288,10 +301,24 @@ public class FeedbackSystem {
         private void onLogin() {
             String username = tfUsername.getText();
             String password = new String(pfPassword.getPassword());
-            authenticatedUser = DataService.getInstance().authenticateUser(username, password);
-            if (authenticatedUser != null && authenticatedUser.getRole().equals(this.expectedRole)) {
+            // Hashing may be deliberately slow, so it runs on the auth executor, not the EDT
+            btnLogin.setEnabled(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            DataService.getInstance().getAuthService().authenticateAsync(username, password)
+                .whenComplete((user, error) -> SwingUtilities.invokeLater(() -> onLoginResult(user, error)));
+        }
+
+        private void onLoginResult(User user, Throwable error) {
+            btnLogin.setEnabled(true);
+            setCursor(Cursor.getDefaultCursor());
+            authenticatedUser = user;
+            if (error != null) {
+                authenticatedUser = null;
+                JOptionPane.showMessageDialog(this, "The server is busy. Please try again.", "Login Failed", JOptionPane.ERROR_MESSAGE);
+            } else if (authenticatedUser != null && authenticatedUser.getRole().equals(this.expectedRole)) {
                 dispose();
             } else {
+                authenticatedUser = null;
                 JOptionPane.showMessageDialog(this, "Invalid credentials.", "Login Failed", JOptionPane.ERROR_MESSAGE);
             }
         }
@@ -310,6 +337,7 @@ public class FeedbackSystem {
         private JList<FormDefinition> formList;
         private DefaultListModel<FormDefinition> listModel;
         private JButton viewFeedbackBtn;
+        private JButton viewChartsBtn;
 
         public AdminDashboard(User user) {
             this.currentUser = user;
@@ -333,7 +361,7 @@ public class FeedbackSystem {
         }
 
         private JPanel createQuickActionsPanel() {
-            JPanel panel = new JPanel(new GridLayout(6, 1, 10, 10));
+            JPanel panel = new JPanel(new GridLayout(0, 1, 10, 10));
             panel.setBackground(Color.WHITE);
             panel.setBorder(BorderFactory.createTitledBorder("Admin Tools"));
             
@@ -346,6 +374,21 @@ public class FeedbackSystem {
             styleButton(saveToFileBtn, BTN_BLUE); // Solid Blue
             saveToFileBtn.addActionListener(e -> saveFeedbackToFile());
             panel.add(saveToFileBtn);
+
+            JButton deltaExportBtn = new JButton("Incremental Export");
+            styleButton(deltaExportBtn, BTN_BLUE); // Solid Blue
+            deltaExportBtn.addActionListener(e -> exportNewFeedback(deltaExportBtn));
+            panel.add(deltaExportBtn);
+
+            JButton importBtn = new JButton("Bulk Import");
+            styleButton(importBtn, BTN_BLUE); // Solid Blue
+            importBtn.addActionListener(e -> bulkImport(importBtn));
+            panel.add(importBtn);
+
+            JButton recorderBtn = new JButton("Flight Recorder");
+            styleButton(recorderBtn, BTN_GRAY); // Solid Gray
+            recorderBtn.addActionListener(e -> manageFlightRecording());
+            panel.add(recorderBtn);
             
             JButton clearDataBtn = new JButton("Clear All Data");
             styleButton(clearDataBtn, BTN_RED); // Solid Red
@@ -380,23 +423,30 @@ public class FeedbackSystem {
             viewFeedbackBtn = new JButton("View Feedback");
             styleButton(viewFeedbackBtn, BTN_PURPLE); // Solid Purple
             
+            viewChartsBtn = new JButton("View Charts");
+            styleButton(viewChartsBtn, BTN_BLUE); // Solid Blue
+            
             JButton delBtn = new JButton("Delete Form");
             styleButton(delBtn, BTN_RED); // Solid Red
             
             viewFeedbackBtn.setEnabled(false);
+            viewChartsBtn.setEnabled(false);
             
             buttonPanel.add(addBtn);
             buttonPanel.add(viewFeedbackBtn);
+            buttonPanel.add(viewChartsBtn);
             buttonPanel.add(delBtn);
             
             formList.addListSelectionListener(e -> {
                 if (!e.getValueIsAdjusting()) {
                     viewFeedbackBtn.setEnabled(formList.getSelectedIndex() != -1);
+                    viewChartsBtn.setEnabled(formList.getSelectedIndex() != -1);
                 }
             });
 
             addBtn.addActionListener(e -> addNewForm());
             viewFeedbackBtn.addActionListener(e -> viewSelectedFormFeedback());
+            viewChartsBtn.addActionListener(e -> viewSelectedFormCharts());
             delBtn.addActionListener(e -> deleteSelectedForm());
             
             panel.add(buttonPanel, BorderLayout.SOUTH);
@@ -449,12 +499,18 @@ public class FeedbackSystem {
             if (selected != null) new FeedbackManagerDialog(this, selected).setVisible(true);
         }
         
+        private void viewSelectedFormCharts() {
+            FormDefinition selected = formList.getSelectedValue();
+            if (selected != null) new RatingChartDialog(this, selected).setVisible(true);
+        }
+        
         private void deleteSelectedForm() {
             FormDefinition selected = formList.getSelectedValue();
             if (selected != null) {
                 int confirm = JOptionPane.showConfirmDialog(this, "Delete " + selected.getTitle() + "?", "Confirm", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
                     dataService.deleteForm(selected);
+                    evictCharts(selected.getId());
                     refreshFormList();
                 }
             }
@@ -467,20 +523,165 @@ public class FeedbackSystem {
 
         private void clearAllFeedback() {
             int response = JOptionPane.showConfirmDialog(this, "Are you sure? This deletes ALL feedback.", "Confirm", JOptionPane.YES_NO_OPTION);
-            if (response == JOptionPane.YES_OPTION) dataService.clearAllFeedback();
+            if (response == JOptionPane.YES_OPTION) {
+                dataService.clearAllFeedback();
+                CHART_CACHE.clear();
+            }
         }
 
         private void saveFeedbackToFile() {
              JFileChooser fileChooser = new JFileChooser();
              fileChooser.setSelectedFile(new File("feedback_export.txt"));
              if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-                 try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileChooser.getSelectedFile()))) {
-                     for (Feedback fb : dataService.getFeedback()) writer.write(fb.toString());
-                     JOptionPane.showMessageDialog(this, "Saved successfully.");
-                 } catch (IOException ex) { ex.printStackTrace(); }
+                 FeedbackEvents.Export event = new FeedbackEvents.Export();
+                 event.begin();
+                 File file = fileChooser.getSelectedFile();
+                 int records = 0;
+                 try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+                     for (Feedback fb : dataService.getFeedback()) {
+                         writer.write(fb.toString());
+                         records++;
+                     }
+                 } catch (IOException ex) { ex.printStackTrace(); return; }
+                 if (event.shouldCommit()) {
+                     event.kind = "full";
+                     event.records = records;
+                     event.bytes = file.length();
+                     event.commit();
+                 }
+                 JOptionPane.showMessageDialog(this, "Saved successfully.");
              }
         }
         
+        private void exportNewFeedback(JButton exportBtn) {
+             JFileChooser dirChooser = new JFileChooser();
+             dirChooser.setDialogTitle("Choose export folder");
+             dirChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+             if (dirChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+             File dir = dirChooser.getSelectedFile();
+             exportBtn.setEnabled(false);
+             exportBtn.setText("Exporting...");
+             new SwingWorker<DeltaExporter.Segment, Void>() {
+                 @Override
+                 protected DeltaExporter.Segment doInBackground() throws Exception {
+                     return new DeltaExporter(dataService, dir.toPath()).export();
+                 }
+
+                 @Override
+                 protected void done() {
+                     exportBtn.setEnabled(true);
+                     exportBtn.setText("Incremental Export");
+                     try {
+                         DeltaExporter.Segment segment = get();
+                         JOptionPane.showMessageDialog(AdminDashboard.this, segment == null ? "No new feedback since the last export." : "Saved " + segment + ".");
+                     } catch (Exception ex) {
+                         Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                         cause.printStackTrace();
+                         JOptionPane.showMessageDialog(AdminDashboard.this, "Export failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                     }
+                 }
+             }.execute();
+        }
+        
+        private void bulkImport(JButton importBtn) {
+             BulkImporter.RecordType[] types = BulkImporter.RecordType.values();
+             int choice = JOptionPane.showOptionDialog(this, "What does the file contain?", "Bulk Import",
+                     JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, new String[]{"Users", "Forms", "Feedback"}, "Feedback");
+             if (choice < 0) return;
+             JFileChooser fileChooser = new JFileChooser();
+             fileChooser.setDialogTitle("Choose a .csv or .jsonl file");
+             if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+             File file = fileChooser.getSelectedFile();
+             importBtn.setEnabled(false);
+             importBtn.setText("Importing...");
+             new SwingWorker<BulkImporter.ImportResult, Void>() {
+                 @Override
+                 protected BulkImporter.ImportResult doInBackground() throws Exception {
+                     return new BulkImporter(dataService).importFile(file.toPath(), types[choice]);
+                 }
+
+                 @Override
+                 protected void done() {
+                     importBtn.setEnabled(true);
+                     importBtn.setText("Bulk Import");
+                     try {
+                         BulkImporter.ImportResult result = get();
+                         refreshFormList();
+                         showImportResult(result);
+                     } catch (Exception ex) {
+                         Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                         cause.printStackTrace();
+                         JOptionPane.showMessageDialog(AdminDashboard.this, "Import failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                     }
+                 }
+             }.execute();
+        }
+
+        private void showImportResult(BulkImporter.ImportResult result) {
+             if (result.errors.isEmpty()) {
+                 JOptionPane.showMessageDialog(this, result.toString());
+                 return;
+             }
+             JTextArea errors = new JTextArea(String.join("\n", result.errors));
+             errors.setEditable(false);
+             JScrollPane scroll = new JScrollPane(errors);
+             scroll.setPreferredSize(new Dimension(600, 300));
+             String more = result.errorCount > result.errors.size() ? "\n(showing the first " + result.errors.size() + " errors)" : "";
+             JOptionPane.showMessageDialog(this, new Object[]{result + more, scroll}, "Bulk Import", JOptionPane.WARNING_MESSAGE);
+        }
+
+        private void manageFlightRecording() {
+             String[] actions = {"Start", "Stop", "Dump...", "Close"};
+             int choice = JOptionPane.showOptionDialog(this, FlightRecorderControl.describe(), "Flight Recorder",
+                     JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, actions, actions[3]);
+             try {
+                 if (choice == 0) {
+                     FlightRecorderControl.start();
+                     JOptionPane.showMessageDialog(this, FlightRecorderControl.describe());
+                 } else if (choice == 1) {
+                     FlightRecorderControl.stop();
+                     JOptionPane.showMessageDialog(this, FlightRecorderControl.describe());
+                 } else if (choice == 2) {
+                     dumpFlightRecording();
+                 }
+             } catch (Exception ex) {
+                 ex.printStackTrace();
+                 JOptionPane.showMessageDialog(this, "Flight Recorder: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+             }
+        }
+
+        private void dumpFlightRecording() {
+             if (!FlightRecorderControl.isRunning()) {
+                 JOptionPane.showMessageDialog(this, "Start the recording first.");
+                 return;
+             }
+             JFileChooser fileChooser = new JFileChooser();
+             fileChooser.setSelectedFile(new File("feedback-" + System.currentTimeMillis() + ".jfr"));
+             if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+             File file = fileChooser.getSelectedFile();
+             new SwingWorker<Void, Void>() {
+                 @Override
+                 protected Void doInBackground() throws Exception {
+                     FlightRecorderControl.dump(file.toPath());
+                     return null;
+                 }
+
+                 @Override
+                 protected void done() {
+                     try {
+                         get();
+                         JOptionPane.showMessageDialog(AdminDashboard.this, "Saved " + file.getName() + " (" + file.length() / 1024 + " KB). Open it with JDK Mission Control or 'jfr print'.");
+                     } catch (Exception ex) {
+                         Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                         cause.printStackTrace();
+                         JOptionPane.showMessageDialog(AdminDashboard.this, "Dump failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                     }
+                 }
+             }.execute();
+        }
+
         private void logout() {
             this.dispose();
             SwingUtilities.invokeLater(FeedbackSystem::showRoleSelectionScreen);
@@ -559,7 +760,7 @@ public class FeedbackSystem {
             
             JButton submitBtn = new JButton("Submit");
             styleButton(submitBtn, BTN_GREEN); // Solid Green
-            submitBtn.addActionListener(e -> submitFeedback());
+            submitBtn.addActionListener(e -> submitFeedback(submitBtn));
             
             JButton logoutBtn = new JButton("Logout");
             styleButton(logoutBtn, BTN_RED); // Solid Red
@@ -577,7 +778,7 @@ public class FeedbackSystem {
             SwingUtilities.invokeLater(FeedbackSystem::showRoleSelectionScreen);
         }
 
-        private void submitFeedback() {
+        private void submitFeedback(JButton submitBtn) {
              String email = emailField.getText();
              if (email.isEmpty() || !email.contains("@")) {
                  JOptionPane.showMessageDialog(this, "Invalid Email.");
@@ -587,10 +788,37 @@ public class FeedbackSystem {
              ratingComboBoxes.forEach((k, v) -> ratings.put(k, (Integer) v.getSelectedItem()));
              
              Feedback fb = new Feedback(nameField.getText(), email, ratings, commentsArea.getText(), form.getId(), form.getTitle());
-             dataService.addFeedback(fb);
-             JOptionPane.showMessageDialog(this, "Thank you!");
-             this.dispose();
-             SwingUtilities.invokeLater(FeedbackSystem::showFormSelectionScreen);
+             // With the BLOCK ingest policy a full queue makes submitFeedback wait, so keep it off the EDT
+             submitBtn.setEnabled(false);
+             submitBtn.setText("Submitting...");
+             new SwingWorker<AdmissionController.Decision, Void>() {
+                 @Override
+                 protected AdmissionController.Decision doInBackground() {
+                     return dataService.submitFeedback(currentUser, fb);
+                 }
+
+                 @Override
+                 protected void done() {
+                     submitBtn.setEnabled(true);
+                     submitBtn.setText("Submit");
+                     AdmissionController.Decision decision;
+                     try {
+                         decision = get();
+                     } catch (Exception ex) {
+                         Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                         cause.printStackTrace();
+                         JOptionPane.showMessageDialog(FeedbackForm.this, "Submission failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                         return;
+                     }
+                     if (!decision.isAccepted()) {
+                         JOptionPane.showMessageDialog(FeedbackForm.this, decision.getMessage(), "Submission Rejected", JOptionPane.WARNING_MESSAGE);
+                         return;
+                     }
+                     JOptionPane.showMessageDialog(FeedbackForm.this, "Thank you!");
+                     dispose();
+                     SwingUtilities.invokeLater(() -> showFormSelectionScreen(currentUser));
+                 }
+             }.execute();
         }
     }
 
@@ -599,18 +827,240 @@ public class FeedbackSystem {
             super(parent, "Manage Users", true);
             setSize(500, 400);
             setLocationRelativeTo(parent);
-            JTable table = new JTable(new DefaultTableModel(new Object[]{"User", "Role"}, 0));
+            DataService dataService = DataService.getInstance();
+            List<FormDefinition> forms = dataService.getForms();
+            // Counts are Integer columns so they sort numerically; the form total goes in the header
+            DefaultTableModel model = new DefaultTableModel(new Object[]{"User", "Role", "Forms Answered (of " + forms.size() + ")", "Submissions"}, 0) {
+                public boolean isCellEditable(int row, int column) { return false; }
+                public Class<?> getColumnClass(int column) { return column >= 2 ? Integer.class : String.class; }
+            };
+            for (User user : dataService.getUsers()) {
+                Map<String, Integer> submissions = dataService.getUserActivity().getSubmissions(user.getUsername());
+                int answered = 0, total = 0;
+                for (FormDefinition form : forms) {
+                    Integer count = submissions.get(form.getId());
+                    if (count != null) {
+                        answered++;
+                        total += count;
+                    }
+                }
+                model.addRow(new Object[]{user.getUsername(), user.getRole(), answered, total});
+            }
+            JTable table = new JTable(model);
+            table.setAutoCreateRowSorter(true);
             add(new JScrollPane(table));
         }
     }
 
+    private static final int MAX_CACHED_CHARTS = 16;
+
+    // Rendered charts keyed by form id + category; reused until that form's counts change.
+    // Least recently used charts are dropped past MAX_CACHED_CHARTS. Only touched on the EDT.
+    private static final Map<String, RenderedChart> CHART_CACHE = new LinkedHashMap<String, RenderedChart>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RenderedChart> eldest) {
+            return size() > MAX_CACHED_CHARTS;
+        }
+    };
+
+    private static void evictCharts(String formId) {
+        CHART_CACHE.keySet().removeIf(key -> key.startsWith(formId + "|"));
+    }
+
+    private static class RenderedChart {
+        final long version;
+        final BufferedImage image;
+
+        RenderedChart(long version, BufferedImage image) {
+            this.version = version;
+            this.image = image;
+        }
+    }
+
+    private static class RatingChartDialog extends JDialog {
+        private final Timer refreshTimer;
+
+        public RatingChartDialog(Frame parent, FormDefinition form) {
+            super(parent, "Charts for: " + form.getTitle(), true);
+            setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE); // dispose() stops the refresh timer
+            setSize(700, 550);
+            setLocationRelativeTo(parent);
+            getContentPane().setBackground(BG_COLOR);
+
+            JComboBox<String> categoryBox = new JComboBox<>(form.getRatingCategories().toArray(new String[0]));
+            RatingChartPanel chartPanel = new RatingChartPanel(form.getId());
+            chartPanel.setCategory((String) categoryBox.getSelectedItem());
+            categoryBox.addActionListener(e -> chartPanel.setCategory((String) categoryBox.getSelectedItem()));
+
+            JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            topPanel.setBackground(Color.WHITE);
+            topPanel.add(new JLabel("Category: "));
+            topPanel.add(categoryBox);
+            add(topPanel, BorderLayout.NORTH);
+            add(chartPanel, BorderLayout.CENTER);
+
+            // Cheap version check; the chart is only re-rendered when the counts actually changed
+            refreshTimer = new Timer(1000, e -> chartPanel.refreshIfChanged());
+            refreshTimer.start();
+        }
+
+        @Override
+        public void dispose() {
+            refreshTimer.stop();
+            super.dispose();
+        }
+    }
+
+    /**
+     * Paints a cached chart image. Rendering happens on a SwingWorker from the form's
+     * RatingAggregates, so opening a chart never scans the responses on the EDT.
+     */
+    private static class RatingChartPanel extends JPanel {
+        private final RatingAggregates aggregates = DataService.getInstance().getRatingAggregates();
+        private final String formId;
+        private String category;
+        private SwingWorker<RenderedChart, Void> pending;
+        private long paintedVersion = -1;
+
+        RatingChartPanel(String formId) {
+            this.formId = formId;
+            setBackground(Color.WHITE);
+        }
+
+        void setCategory(String category) {
+            this.category = category;
+            repaint();
+        }
+
+        void refreshIfChanged() {
+            if (aggregates.getVersion(formId) != paintedVersion) repaint();
+        }
+
+        private String cacheKey() {
+            return formId + "|" + category;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (category == null) return;
+            long version = aggregates.getVersion(formId);
+            RenderedChart chart = CHART_CACHE.get(cacheKey());
+            boolean fits = chart != null && chart.image.getWidth() == getWidth() && chart.image.getHeight() == getHeight();
+            if (chart != null) {
+                g.drawImage(chart.image, 0, 0, null); // stale image stays up while a new one renders
+                paintedVersion = chart.version;
+            } else {
+                g.setColor(Color.GRAY);
+                g.drawString("Rendering...", 20, 30);
+            }
+            if (!fits || chart.version != version) render();
+        }
+
+        private void render() {
+            if (pending != null && !pending.isDone()) return;
+            String key = cacheKey();
+            String renderCategory = category;
+            int width = Math.max(1, getWidth());
+            int height = Math.max(1, getHeight());
+            pending = new SwingWorker<RenderedChart, Void>() {
+                @Override
+                protected RenderedChart doInBackground() {
+                    RatingAggregates.CategorySnapshot snapshot = aggregates.snapshot(formId, renderCategory);
+                    long version = snapshot != null ? snapshot.version : aggregates.getVersion(formId);
+                    return new RenderedChart(version, drawChart(snapshot, renderCategory, width, height));
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        CHART_CACHE.put(key, get());
+                        repaint();
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            };
+            pending.execute();
+        }
+
+        private static BufferedImage drawChart(RatingAggregates.CategorySnapshot snapshot, String category, int width, int height) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            g.setColor(Color.DARK_GRAY);
+
+            if (snapshot == null || snapshot.total() == 0) {
+                g.drawString("No ratings for \"" + category + "\" yet.", 20, 30);
+                g.dispose();
+                return image;
+            }
+
+            int margin = 40;
+            int half = height / 2;
+            g.drawString(String.format("%s - %d response(s), average %.2f / 5", category, snapshot.total(), snapshot.average()), margin, 25);
+
+            // Histogram: one bar per rating value
+            long max = 1;
+            for (int r = RatingAggregates.MIN_RATING; r <= RatingAggregates.MAX_RATING; r++) max = Math.max(max, snapshot.counts[r]);
+            int bars = RatingAggregates.MAX_RATING;
+            int slot = (width - 2 * margin) / bars;
+            int barTop = 45, barBottom = half - 20;
+            g.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            for (int r = RatingAggregates.MIN_RATING; r <= RatingAggregates.MAX_RATING; r++) {
+                int barHeight = (int) ((barBottom - barTop) * snapshot.counts[r] / max);
+                int x = margin + (r - 1) * slot + slot / 6;
+                g.setColor(BTN_PURPLE);
+                g.fillRect(x, barBottom - barHeight, slot * 2 / 3, barHeight);
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(r + "", x + slot / 3 - 3, barBottom + 15);
+                g.drawString(String.valueOf(snapshot.counts[r]), x, barBottom - barHeight - 4);
+            }
+
+            // Trend: average rating per bucket of responses, in submission order
+            int top = half + 30, bottom = height - margin, left = margin, right = width - margin;
+            g.setColor(Color.LIGHT_GRAY);
+            for (int r = RatingAggregates.MIN_RATING; r <= RatingAggregates.MAX_RATING; r++) {
+                int y = bottom - (bottom - top) * (r - 1) / (RatingAggregates.MAX_RATING - 1);
+                g.drawLine(left, y, right, y);
+                g.drawString(r + "", left - 15, y + 4);
+            }
+            g.setColor(Color.DARK_GRAY);
+            g.drawString("Average rating per " + snapshot.responsesPerBucket + " response(s)", left, top - 10);
+            double[] trend = snapshot.trend;
+            g.setColor(BTN_BLUE);
+            g.setStroke(new BasicStroke(2f));
+            int prevX = -1, prevY = -1;
+            for (int i = 0; i < trend.length; i++) {
+                int x = trend.length == 1 ? (left + right) / 2 : left + (right - left) * i / (trend.length - 1);
+                int y = bottom - (int) ((bottom - top) * (trend[i] - 1) / (RatingAggregates.MAX_RATING - 1));
+                if (prevX >= 0) g.drawLine(prevX, prevY, x, y);
+                g.fillOval(x - 3, y - 3, 6, 6);
+                prevX = x;
+                prevY = y;
+            }
+            g.dispose();
+            return image;
+        }
+    }
+
     private static class FeedbackManagerDialog extends JDialog {
+        private static final int TOP_K = 100;
+        // Shown for the average of all categories; the rank box tells it apart by position, not by name
+        private static final String AVERAGE_LABEL = "Average (all categories)";
+
         private final DataService dataService = DataService.getInstance();
         private DefaultTableModel tableModel;
         private TableRowSorter<DefaultTableModel> sorter;
         private JTextField searchField;
         private final FormDefinition form;
         private JTable feedbackTable;
+        private JComboBox<String> rankByBox;
+        private JLabel statusLabel;
+        private final int objColumn;
 
         public FeedbackManagerDialog(Frame parent, FormDefinition form) {
             super(parent, "Feedback for: " + form.getTitle(), true);
@@ -629,10 +1079,51 @@ public class FeedbackSystem {
             styleButton(applyBtn, BTN_PURPLE); // Solid Purple
             applyBtn.addActionListener(e -> applyFilters());
             filterPanel.add(applyBtn);
-            add(filterPanel, BorderLayout.NORTH);
 
-            tableModel = new DefaultTableModel(new String[]{"Name", "Email", "Ratings", "Comments", "OBJ"}, 0) {
+            // Worst/best come straight from the rating index instead of sorting every row
+            JPanel rankPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            rankPanel.setBackground(Color.WHITE);
+            rankPanel.add(new JLabel("Rank by: "));
+            rankByBox = new JComboBox<>();
+            rankByBox.addItem(AVERAGE_LABEL);
+            form.getRatingCategories().forEach(rankByBox::addItem);
+            rankPanel.add(rankByBox);
+
+            JButton worstBtn = new JButton("Worst " + TOP_K);
+            styleButton(worstBtn, BTN_RED); // Solid Red
+            worstBtn.addActionListener(e -> showRanked(true));
+            rankPanel.add(worstBtn);
+
+            JButton bestBtn = new JButton("Best " + TOP_K);
+            styleButton(bestBtn, BTN_GREEN); // Solid Green
+            bestBtn.addActionListener(e -> showRanked(false));
+            rankPanel.add(bestBtn);
+
+            JButton allBtn = new JButton("All");
+            styleButton(allBtn, BTN_GRAY); // Solid Gray
+            allBtn.addActionListener(e -> refreshTable());
+            rankPanel.add(allBtn);
+
+            JPanel toolbar = new JPanel(new GridLayout(2, 1));
+            toolbar.add(filterPanel);
+            toolbar.add(rankPanel);
+            add(toolbar, BorderLayout.NORTH);
+
+            // One numeric column per category plus the average, so sorting compares numbers
+            List<String> columns = new ArrayList<>(List.of("Name", "Email"));
+            columns.addAll(form.getRatingCategories());
+            columns.add(AVERAGE_LABEL);
+            columns.add("Comments");
+            columns.add("OBJ");
+            objColumn = columns.size() - 1;
+            int firstRating = 2, averageColumn = objColumn - 2;
+            tableModel = new DefaultTableModel(columns.toArray(), 0) {
                 public boolean isCellEditable(int row, int column) { return false; }
+                public Class<?> getColumnClass(int column) {
+                    if (column >= firstRating && column < averageColumn) return Integer.class;
+                    if (column == averageColumn) return Double.class;
+                    return column == objColumn ? Object.class : String.class;
+                }
             };
             
             feedbackTable = new JTable(tableModel);
@@ -640,14 +1131,14 @@ public class FeedbackSystem {
             
             sorter = new TableRowSorter<>(tableModel);
             feedbackTable.setRowSorter(sorter);
-            feedbackTable.removeColumn(feedbackTable.getColumnModel().getColumn(4));
+            feedbackTable.removeColumn(feedbackTable.getColumnModel().getColumn(objColumn));
             
             feedbackTable.addMouseListener(new MouseAdapter() {
                 public void mouseClicked(MouseEvent e) {
                     if (e.getClickCount() == 2) {
                         int row = feedbackTable.getSelectedRow();
                         if (row != -1) {
-                            Feedback fb = (Feedback) tableModel.getValueAt(feedbackTable.convertRowIndexToModel(row), 4);
+                            Feedback fb = (Feedback) tableModel.getValueAt(feedbackTable.convertRowIndexToModel(row), objColumn);
                             JOptionPane.showMessageDialog(FeedbackManagerDialog.this, new JScrollPane(new JTextArea(fb.toString())));
                         }
                     }
@@ -655,24 +1146,85 @@ public class FeedbackSystem {
             });
 
             add(new JScrollPane(feedbackTable), BorderLayout.CENTER);
+
+            statusLabel = new JLabel(" ");
+            statusLabel.setBorder(new EmptyBorder(5, 10, 5, 10));
+            add(statusLabel, BorderLayout.SOUTH);
             refreshTable();
         }
         
         private void refreshTable() {
-            tableModel.setRowCount(0);
+            FeedbackEvents.TableRefresh event = new FeedbackEvents.TableRefresh();
+            event.begin();
+            List<Feedback> rows = new ArrayList<>();
+            int scanned = 0;
             for (Feedback fb : dataService.getFeedback()) {
-                if (fb.getFormId().equals(form.getId())) {
-                    StringBuilder ratings = new StringBuilder();
-                    fb.getRatings().forEach((k, v) -> ratings.append(k).append(":").append(v).append(" "));
-                    tableModel.addRow(new Object[]{fb.getUserName(), fb.getUserEmail(), ratings.toString(), fb.getComments(), fb});
+                scanned++;
+                if (fb.formIdEquals(form.getId())) rows.add(fb);
+            }
+            setRows(rows);
+            statusLabel.setText("Showing all " + rows.size() + " responses.");
+            if (event.shouldCommit()) {
+                event.formId = form.getId();
+                event.scanned = scanned;
+                event.records = rows.size();
+                event.commit();
+            }
+        }
+
+        private void showRanked(boolean worst) {
+            String label = (String) rankByBox.getSelectedItem();
+            String rankBy = rankByBox.getSelectedIndex() == 0 ? null : label;
+            RatingIndex index = dataService.getRatingIndex();
+            List<Feedback> rows = worst ? index.worst(form.getId(), rankBy, TOP_K) : index.best(form.getId(), rankBy, TOP_K);
+            sorter.setSortKeys(null); // keep the index order
+            setRows(rows);
+            statusLabel.setText("Showing the " + rows.size() + (worst ? " lowest" : " highest") + " rated by " + label
+                    + " of " + index.count(form.getId(), rankBy, RatingAggregates.MIN_RATING, RatingAggregates.MAX_RATING) + ".");
+        }
+
+        // Replaces all rows with a single model event instead of one insert (and re-sort) per row
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private void setRows(List<Feedback> feedback) {
+            Vector data = tableModel.getDataVector();
+            data.clear();
+            for (Feedback fb : feedback) data.add(new Vector<>(toRow(fb)));
+            tableModel.fireTableDataChanged();
+        }
+
+        private List<Object> toRow(Feedback fb) {
+            Map<String, Integer> ratings = fb.getRatings();
+            List<Object> row = new ArrayList<>(objColumn + 1);
+            row.add(fb.getUserName());
+            row.add(fb.getUserEmail());
+            long sum = 0;
+            int count = 0;
+            for (String category : form.getRatingCategories()) {
+                Integer rating = ratings.get(category);
+                row.add(rating);
+                if (rating != null) {
+                    sum += rating;
+                    count++;
                 }
             }
+            row.add(count == 0 ? null : Math.round(sum * 10.0 / count) / 10.0);
+            row.add(fb.getComments());
+            row.add(fb);
+            return row;
         }
         
         private void applyFilters() {
+             FeedbackEvents.TableFilter event = new FeedbackEvents.TableFilter();
+             event.begin();
              String text = searchField.getText();
              if (text.isEmpty()) sorter.setRowFilter(null);
              else sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text, 0));
+             if (event.shouldCommit()) {
+                 event.formId = form.getId();
+                 event.records = tableModel.getRowCount();
+                 event.matches = sorter.getViewRowCount();
+                 event.commit();
+             }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * One continuous, low-overhead Flight Recorder recording that can be dumped after an incident.
+ *
+ * Uses the JDK's "default" settings (meant for production, around 1% overhead) plus the
+ * events in FeedbackEvents, and keeps only the last hour / 250 MB on disk.
+ * Start it at launch with -Dfeedback.jfr=on, or from the admin dashboard.
+ */
+final class FlightRecorderControl {
+
+    private static final String RECORDING_NAME = "feedback-always-on";
+    private static final Duration MAX_AGE = Duration.ofHours(1);
+    private static final long MAX_SIZE = 250L * 1024 * 1024;
+
+    private static Recording recording;
+
+    private FlightRecorderControl() {}
+
+    /** Starts the recording at launch when -Dfeedback.jfr=on is set. */
+    public static void startIfConfigured() {
+        if (!"on".equalsIgnoreCase(System.getProperty("feedback.jfr"))) return;
+        try {
+            start();
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Could not start the flight recording: " + e);
+        }
+    }
+
+    public static synchronized void start() throws IOException, ParseException {
+        if (isRunning()) return;
+        Recording r = new Recording(Configuration.getConfiguration("default"));
+        r.setName(RECORDING_NAME);
+        r.setToDisk(true);
+        r.setMaxAge(MAX_AGE);
+        r.setMaxSize(MAX_SIZE);
+        for (Class<?> event : FeedbackEvents.class.getDeclaredClasses()) r.enable(event.asSubclass(Event.class));
+        r.start();
+        recording = r;
+    }
+
+    public static synchronized void stop() {
+        if (recording == null) return;
+        recording.close();
+        recording = null;
+    }
+
+    /** Writes what the running recording holds so far; it keeps recording afterwards. */
+    public static synchronized void dump(Path file) throws IOException {
+        if (!isRunning()) throw new IllegalStateException("No recording is running.");
+        recording.dump(file);
+    }
+
+    public static synchronized boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    public static synchronized String describe() {
+        if (!isRunning()) return "Flight recording is stopped.";
+        return "Flight recording running since " + recording.getStartTime() + " (keeps the last "
+                + MAX_AGE.toMinutes() + " minutes, at most " + MAX_SIZE / (1024 * 1024) + " MB).";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer in front of the store.
+ *
+ * Any number of threads publish into pre-allocated slots. One consumer thread drains
+ * everything that is ready in batches and hands each batch to the sink, so the store is
+ * updated (and its lock taken) once per batch instead of once per submission.
+ *
+ * A batch the sink keeps failing on is not silently dropped: after a few retries the
+ * pipeline stops, counts the items it could not deliver, hands them to the failure
+ * handler and rejects further publishes.
+ *
+ * Stopping sets a CLOSED bit in the claim counter itself, so a publish either claims its slot
+ * before the stop (and the consumer still drains it) or fails its claim and is rejected;
+ * no item can land in a slot after the consumer has exited.
+ */
+class IngestionPipeline<T> {
+
+    enum BackpressurePolicy {
+        BLOCK,     // wait until the consumer frees a slot
+        DROP,      // discard the new item and return false
+        FAIL_FAST  // throw RejectedExecutionException
+    }
+
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    private static final int IDLE_TIMED_PARKS = 20; // ~1 ms of short naps before sleeping until unparked
+    private static final long FULL_PARK_NANOS = 10_000;
+    private static final int SINK_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_NANOS = 10_000_000;
+    private static final long CLOSED = 1L << 62; // set in claimed once no more items are accepted
+
+    private final Object[] slots;
+    private final AtomicLongArray published; // sequence stored in each slot once it is readable
+    private final int mask;
+    private final BackpressurePolicy policy;
+    private final Consumer<List<T>> sink;
+    private final Consumer<List<T>> onFailure;
+
+    private final AtomicLong claimed = new AtomicLong(); // next sequence a producer will claim, plus CLOSED
+    private volatile long consumed;                      // every sequence below this has been drained
+    private final Thread consumer;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long batches;
+    private volatile long drained;
+    private volatile int largestBatch;
+    private volatile long failed;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param sink      called on the consumer thread with each drained batch
+     * @param onFailure gets the items that could not be delivered once the sink has failed
+     */
+    IngestionPipeline(String name, int capacity, BackpressurePolicy policy, Consumer<List<T>> sink, Consumer<List<T>> onFailure) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Object[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) published.set(i, -1);
+        this.mask = size - 1;
+        this.policy = policy;
+        this.sink = sink;
+        this.onFailure = onFailure;
+        this.consumer = new Thread(this::drainLoop, name);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /** Returns false if the item was dropped because the buffer is full (DROP policy). */
+    public boolean publish(T item) {
+        long seq;
+        while (true) {
+            seq = claimed.get();
+            if ((seq & CLOSED) != 0) {
+                throw new RejectedExecutionException(failure != null ? "Ingestion pipeline stopped after a storage failure" : "Ingestion pipeline is shut down");
+            }
+            if (seq - consumed >= slots.length) {
+                if (policy == BackpressurePolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                if (policy == BackpressurePolicy.FAIL_FAST) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Ingestion buffer is full (" + slots.length + " items)");
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) break;
+        }
+        int index = (int) seq & mask;
+        slots[index] = item;
+        published.lazySet(index, seq); // release: slot contents are visible before the sequence
+        LockSupport.unpark(consumer);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(MAX_BATCH);
+        long next = consumed;
+        int idleParks = 0;
+        while (true) {
+            long claim = claimed.get();
+            // Once closed, the claim counter no longer moves: drain up to it, then stop
+            if ((claim & CLOSED) != 0 && next == (claim & ~CLOSED)) break;
+            while (batch.size() < MAX_BATCH) {
+                int index = (int) next & mask;
+                if (published.get(index) != next) break;
+                batch.add((T) slots[index]);
+                slots[index] = null;
+                next++;
+            }
+            if (batch.isEmpty()) {
+                // Producers unpark this thread after publishing. A permit given between the check
+                // above and park() makes park() return at once, so no wake-up is lost.
+                if (idleParks++ < IDLE_TIMED_PARKS) LockSupport.parkNanos(IDLE_PARK_NANOS);
+                else LockSupport.park(this);
+                continue;
+            }
+            idleParks = 0;
+            if (failure == null) deliver(batch);
+            if (failure != null) {
+                failed += batch.size();
+                try {
+                    onFailure.accept(batch);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            batches++;
+            drained += batch.size();
+            largestBatch = Math.max(largestBatch, batch.size());
+            consumed = next; // frees the slots for producers
+            batch = new ArrayList<>(MAX_BATCH);
+        }
+    }
+
+    private void deliver(List<T> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.accept(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == SINK_ATTEMPTS) {
+                    e.printStackTrace();
+                    failure = e;
+                    close(); // reject new items; the rest of the buffer goes to onFailure
+                    return;
+                }
+                LockSupport.parkNanos(RETRY_BACKOFF_NANOS * attempt);
+            }
+        }
+    }
+
+    /** Waits until everything published so far has been handed to the sink (or to the failure handler). */
+    public boolean awaitDrained(long timeoutMillis) {
+        long target = claimed.get() & ~CLOSED;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (consumed < target) {
+            if (System.currentTimeMillis() > deadline) return false;
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /** Stops accepting new items and lets the consumer finish what was already published. */
+    public void shutdown() {
+        close();
+        LockSupport.unpark(consumer);
+    }
+
+    private void close() {
+        claimed.getAndUpdate(c -> c | CLOSED);
+    }
+
+    public int getCapacity() { return slots.length; }
+    public BackpressurePolicy getPolicy() { return policy; }
+    public long getBacklog() { return (claimed.get() & ~CLOSED) - consumed; }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+    public long getBatchCount() { return batches; }
+    public long getDrainedCount() { return drained; }
+    public int getLargestBatch() { return largestBatch; }
+    /** Items that were accepted but could not be stored because the sink failed. */
+    public long getFailedCount() { return failed; }
+    /** The error that stopped the pipeline, or null while it is healthy. */
+    public RuntimeException getFailure() { return failure; }
+}
\ No newline at end of file
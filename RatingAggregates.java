@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running rating statistics per form and category, updated as feedback is stored.
+ *
+ * Charts read these instead of scanning every response. Each form has a version that
+ * changes whenever its counts change, so rendered charts can be cached until then.
+ */
+class RatingAggregates {
+
+    static final int MIN_RATING = 1;
+    static final int MAX_RATING = 5;
+
+    private final Map<String, FormStats> forms = new ConcurrentHashMap<>();
+
+    public void add(Feedback feedback) {
+        Map<String, Integer> ratings = feedback.getRatings();
+        if (ratings == null || ratings.isEmpty()) return;
+        forms.computeIfAbsent(feedback.getFormId(), id -> new FormStats()).add(ratings);
+    }
+
+    public void removeForm(String formId) {
+        forms.remove(formId);
+    }
+
+    public void clear() {
+        // Bump the version of every form instead of dropping it, so cached charts notice
+        for (FormStats stats : forms.values()) stats.clear();
+    }
+
+    /** Changes whenever the counts of the form change; 0 if it has none. */
+    public long getVersion(String formId) {
+        FormStats stats = forms.get(formId);
+        return stats == null ? 0 : stats.getVersion();
+    }
+
+    /** Consistent copy of one category's statistics, or null if the form has no ratings for it. */
+    public CategorySnapshot snapshot(String formId, String category) {
+        FormStats stats = forms.get(formId);
+        return stats == null ? null : stats.snapshot(category);
+    }
+
+    static class CategorySnapshot {
+        final long version;
+        final long[] counts;          // counts[r] = number of ratings equal to r (1..5)
+        final double[] trend;         // average rating per trend bucket, oldest first
+        final int responsesPerBucket;
+
+        CategorySnapshot(long version, long[] counts, double[] trend, int responsesPerBucket) {
+            this.version = version;
+            this.counts = counts;
+            this.trend = trend;
+            this.responsesPerBucket = responsesPerBucket;
+        }
+
+        long total() {
+            long total = 0;
+            for (long c : counts) total += c;
+            return total;
+        }
+
+        double average() {
+            long total = 0, sum = 0;
+            for (int r = MIN_RATING; r <= MAX_RATING; r++) {
+                total += counts[r];
+                sum += counts[r] * r;
+            }
+            return total == 0 ? 0 : (double) sum / total;
+        }
+    }
+
+    private static class FormStats {
+        private final Map<String, CategoryStats> categories = new LinkedHashMap<>();
+        private long version;
+
+        synchronized void add(Map<String, Integer> ratings) {
+            for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
+                if (entry.getValue() == null) continue;
+                categories.computeIfAbsent(entry.getKey(), k -> new CategoryStats()).add(entry.getValue());
+            }
+            version++;
+        }
+
+        synchronized void clear() {
+            categories.clear();
+            version++;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized CategorySnapshot snapshot(String category) {
+            CategoryStats stats = categories.get(category);
+            return stats == null ? null : stats.snapshot(version);
+        }
+    }
+
+    /**
+     * Histogram plus a trend over submission order. The trend keeps at most MAX_BUCKETS
+     * buckets; when full, neighbours are merged and the bucket width doubles, so memory
+     * stays constant no matter how many responses arrive.
+     */
+    private static class CategoryStats {
+        private static final int MAX_BUCKETS = 64;
+
+        private final long[] counts = new long[MAX_RATING + 1];
+        private final List<long[]> buckets = new ArrayList<>(); // {sum, count}
+        private int bucketWidth = 1;
+
+        void add(int rating) {
+            counts[Math.max(MIN_RATING, Math.min(MAX_RATING, rating))]++;
+            long[] last = buckets.isEmpty() ? null : buckets.get(buckets.size() - 1);
+            if (last == null || last[1] >= bucketWidth) {
+                if (buckets.size() == MAX_BUCKETS) {
+                    compact();
+                    last = buckets.get(buckets.size() - 1);
+                }
+                if (last == null || last[1] >= bucketWidth) {
+                    last = new long[2];
+                    buckets.add(last);
+                }
+            }
+            last[0] += rating;
+            last[1]++;
+        }
+
+        private void compact() {
+            List<long[]> merged = new ArrayList<>(MAX_BUCKETS);
+            for (int i = 0; i < buckets.size(); i += 2) {
+                long[] a = buckets.get(i);
+                if (i + 1 < buckets.size()) {
+                    long[] b = buckets.get(i + 1);
+                    merged.add(new long[]{a[0] + b[0], a[1] + b[1]});
+                } else {
+                    merged.add(a);
+                }
+            }
+            buckets.clear();
+            buckets.addAll(merged);
+            bucketWidth *= 2;
+        }
+
+        CategorySnapshot snapshot(long version) {
+            double[] trend = new double[buckets.size()];
+            for (int i = 0; i < trend.length; i++) {
+                long[] b = buckets.get(i);
+                trend[i] = b[1] == 0 ? 0 : (double) b[0] / b[1];
+            }
+            return new CategorySnapshot(version, counts.clone(), trend, bucketWidth);
+        }
+    }
+}
\ No newline at end of file
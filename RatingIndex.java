@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feedback ordered by rating, per form and category, updated as feedback is stored.
+ *
+ * Ratings only take a few values, so each category keeps one list per rating value
+ * instead of a sorted structure: adding is an append, and the K worst or best responses
+ * are read from the first non-empty buckets without looking at anything else.
+ * A null category orders responses by their average rating, in steps of 0.1; it is kept
+ * apart from the real categories so a category of any name can't clash with it.
+ * Within one rating, the newest response comes first.
+ */
+class RatingIndex {
+
+    private static final int SCALE = 10; // bucket key = rating * SCALE
+    private static final int MIN_KEY = RatingAggregates.MIN_RATING * SCALE;
+    private static final int MAX_KEY = RatingAggregates.MAX_RATING * SCALE;
+
+    private final Map<String, FormIndex> forms = new ConcurrentHashMap<>();
+
+    public void add(Feedback feedback) {
+        Map<String, Integer> ratings = feedback.getRatings();
+        if (ratings == null || ratings.isEmpty()) return;
+        forms.computeIfAbsent(feedback.getFormId(), id -> new FormIndex()).add(feedback, ratings);
+    }
+
+    public void removeForm(String formId) {
+        forms.remove(formId);
+    }
+
+    public void clear() {
+        forms.clear();
+    }
+
+    /** The k lowest-rated responses for a category (or null for the average), lowest first. */
+    public List<Feedback> worst(String formId, String category, int k) {
+        return page(formId, category, RatingAggregates.MIN_RATING, RatingAggregates.MAX_RATING, true, 0, k);
+    }
+
+    /** The k highest-rated responses for a category (or null for the average), highest first. */
+    public List<Feedback> best(String formId, String category, int k) {
+        return page(formId, category, RatingAggregates.MIN_RATING, RatingAggregates.MAX_RATING, false, 0, k);
+    }
+
+    /**
+     * Responses rated between minRating and maxRating (inclusive), ordered by rating,
+     * skipping the first offset of them. Whole buckets are skipped by their size.
+     */
+    public List<Feedback> page(String formId, String category, double minRating, double maxRating,
+                               boolean ascending, int offset, int limit) {
+        FormIndex index = forms.get(formId);
+        if (index == null || limit <= 0) return Collections.emptyList();
+        return index.page(category, toKey(minRating), toKey(maxRating), ascending, offset, limit);
+    }
+
+    /** Number of responses rated between minRating and maxRating (inclusive). */
+    public int count(String formId, String category, double minRating, double maxRating) {
+        FormIndex index = forms.get(formId);
+        return index == null ? 0 : index.count(category, toKey(minRating), toKey(maxRating));
+    }
+
+    private static int toKey(double rating) {
+        return Math.max(MIN_KEY, Math.min(MAX_KEY, (int) Math.round(rating * SCALE)));
+    }
+
+    private static class FormIndex {
+        private final Map<String, List<Feedback>[]> categories = new ConcurrentHashMap<>();
+        private final List<Feedback>[] average = newBuckets();
+
+        synchronized void add(Feedback feedback, Map<String, Integer> ratings) {
+            long sum = 0;
+            int count = 0;
+            for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
+                if (entry.getValue() == null) continue;
+                bucket(categories.computeIfAbsent(entry.getKey(), k -> newBuckets()), toKey(entry.getValue())).add(feedback);
+                sum += entry.getValue();
+                count++;
+            }
+            if (count > 0) bucket(average, toKey((double) sum / count)).add(feedback);
+        }
+
+        private static List<Feedback> bucket(List<Feedback>[] buckets, int key) {
+            if (buckets[key] == null) buckets[key] = new ArrayList<>();
+            return buckets[key];
+        }
+
+        private List<Feedback>[] buckets(String category) {
+            return category == null ? average : categories.get(category);
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static List<Feedback>[] newBuckets() {
+            return new List[MAX_KEY + 1];
+        }
+
+        synchronized List<Feedback> page(String category, int minKey, int maxKey, boolean ascending, int offset, int limit) {
+            List<Feedback>[] buckets = buckets(category);
+            List<Feedback> page = new ArrayList<>(Math.min(limit, 1024));
+            if (buckets == null) return page;
+            int skip = Math.max(0, offset);
+            for (int i = 0; i <= maxKey - minKey && page.size() < limit; i++) {
+                List<Feedback> bucket = buckets[ascending ? minKey + i : maxKey - i];
+                if (bucket == null) continue;
+                if (skip >= bucket.size()) {
+                    skip -= bucket.size();
+                    continue;
+                }
+                for (int j = bucket.size() - 1 - skip; j >= 0 && page.size() < limit; j--) page.add(bucket.get(j));
+                skip = 0;
+            }
+            return page;
+        }
+
+        synchronized int count(String category, int minKey, int maxKey) {
+            List<Feedback>[] buckets = buckets(category);
+            if (buckets == null) return 0;
+            int count = 0;
+            for (int key = minKey; key <= maxKey; key++) {
+                if (buckets[key] != null) count += buckets[key].size();
+            }
+            return count;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,457 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leader/follower replication of the DataService change log over a local TCP socket.
+ *
+ * Usage:
+ *   java ReplicationNode leader <port>           - runs the normal GUI and streams its changes
+ *   java ReplicationNode follower <host> <port>  - read-only replica with a small console
+ *
+ * Protocol: the follower sends the store id it replicates and the last sequence it has
+ * applied ("" and -1 if none). The leader answers with a snapshot if the store differs from
+ * its own or that position is no longer in its log, then streams batches.
+ */
+public class ReplicationNode {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && "leader".equals(args[0])) {
+            new ReplicationLeader(DataService.getInstance(), Integer.parseInt(args[1])).start();
+            FeedbackSystem.main(new String[0]);
+        } else if (args.length == 3 && "follower".equals(args[0])) {
+            FlightRecorderControl.startIfConfigured();
+            DataService dataService = DataService.getInstance();
+            ReplicationFollower follower = new ReplicationFollower(dataService, args[1], Integer.parseInt(args[2]));
+            follower.start();
+            runConsole(dataService, follower);
+        } else {
+            System.out.println("Usage: java ReplicationNode leader <port>");
+            System.out.println("       java ReplicationNode follower <host> <port>");
+        }
+    }
+
+    private static void runConsole(DataService dataService, ReplicationFollower follower) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        System.out.println("Commands: stats | lag | form <title> | export <file> | quit");
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.equals("quit")) break;
+            if (line.equals("lag")) {
+                System.out.println(follower.describeLag());
+            } else if (line.equals("stats")) {
+                printStats(dataService);
+            } else if (line.startsWith("form ")) {
+                String title = line.substring(5).trim();
+                for (FormDefinition form : dataService.getForms()) {
+                    if (!title.equals(form.getTitle())) continue;
+                    for (Feedback fb : dataService.getFeedback()) {
+                        if (fb.formIdEquals(form.getId())) System.out.print(fb);
+                    }
+                }
+            } else if (line.startsWith("export ")) {
+                FeedbackEvents.Export event = new FeedbackEvents.Export();
+                event.begin();
+                File file = new File(line.substring(7).trim());
+                int records = 0;
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+                    for (Feedback fb : dataService.getFeedback()) {
+                        writer.write(fb.toString());
+                        records++;
+                    }
+                }
+                if (event.shouldCommit()) {
+                    event.kind = "full";
+                    event.records = records;
+                    event.bytes = file.length();
+                    event.commit();
+                }
+                System.out.println("Saved successfully.");
+            } else if (!line.isEmpty()) {
+                System.out.println("Unknown command: " + line);
+            }
+        }
+        follower.stop();
+        System.exit(0);
+    }
+
+    private static void printStats(DataService dataService) {
+        System.out.println("Users: " + dataService.getUsers().size() + ", forms: " + dataService.getForms().size()
+                + ", feedback: " + dataService.getFeedback().size());
+        // Compare ids in place so off-heap records are not decoded just to be counted
+        List<FormDefinition> forms = new ArrayList<>(dataService.getForms());
+        int[] perForm = new int[forms.size()];
+        for (Feedback fb : dataService.getFeedback()) {
+            for (int i = 0; i < perForm.length; i++) {
+                if (fb.formIdEquals(forms.get(i).getId())) {
+                    perForm[i]++;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < perForm.length; i++) {
+            System.out.println("  " + forms.get(i).getTitle() + ": " + perForm[i] + " response(s)");
+        }
+    }
+}
+
+/** Binary encoding shared by leader and follower. */
+class ReplicationCodec {
+    static final byte SNAPSHOT = 'S';
+    static final byte BATCH = 'B';
+
+    static void writeSnapshot(DataOutputStream out, DataService.Snapshot snapshot) throws IOException {
+        out.writeByte(SNAPSHOT);
+        writeString(out, snapshot.getStoreId());
+        out.writeLong(snapshot.getSequence());
+        out.writeInt(snapshot.getUsers().size());
+        for (User user : snapshot.getUsers()) writeUser(out, user);
+        out.writeInt(snapshot.getForms().size());
+        for (FormDefinition form : snapshot.getForms()) writeForm(out, form);
+        out.writeInt(snapshot.getFeedback().size());
+        for (Feedback fb : snapshot.getFeedback()) writeFeedback(out, fb);
+    }
+
+    /** Reads a snapshot whose leading type byte has already been consumed. */
+    static DataService.Snapshot readSnapshot(DataInputStream in) throws IOException {
+        String storeId = readString(in);
+        long sequence = in.readLong();
+        int count = in.readInt();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) users.add(readUser(in));
+        count = in.readInt();
+        List<FormDefinition> forms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) forms.add(readForm(in));
+        count = in.readInt();
+        List<Feedback> feedback = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) feedback.add(readFeedback(in));
+        return new DataService.Snapshot(storeId, sequence, users, forms, feedback);
+    }
+
+    static void writeBatch(DataOutputStream out, long leaderSequence, List<ChangeRecord> records) throws IOException {
+        out.writeByte(BATCH);
+        out.writeLong(leaderSequence);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(records.size());
+        for (ChangeRecord record : records) writeRecord(out, record);
+    }
+
+    static void writeRecord(DataOutputStream out, ChangeRecord record) throws IOException {
+        out.writeByte(record.getType().ordinal());
+        out.writeLong(record.getSequence());
+        switch (record.getType()) {
+            case ADD_FEEDBACK: writeFeedback(out, record.getFeedback()); break;
+            case ADD_USER: writeUser(out, record.getUser()); break;
+            case ADD_FORM: writeForm(out, record.getForm()); break;
+            case DELETE_USER:
+            case DELETE_FORM: writeString(out, record.getKey()); break;
+            case UPDATE_PASSWORD: writeString(out, record.getKey()); writeString(out, record.getValue()); break;
+            case CLEAR_FEEDBACK: break;
+        }
+    }
+
+    static ChangeRecord readRecord(DataInputStream in) throws IOException {
+        ChangeRecord.Type type = ChangeRecord.Type.values()[in.readByte()];
+        long sequence = in.readLong();
+        ChangeRecord record;
+        switch (type) {
+            case ADD_FEEDBACK: record = ChangeRecord.addFeedback(readFeedback(in)); break;
+            case ADD_USER: record = ChangeRecord.addUser(readUser(in)); break;
+            case ADD_FORM: record = ChangeRecord.addForm(readForm(in)); break;
+            case DELETE_USER: record = ChangeRecord.deleteUser(readString(in)); break;
+            case DELETE_FORM: record = ChangeRecord.deleteForm(readString(in)); break;
+            case UPDATE_PASSWORD: record = ChangeRecord.updatePassword(readString(in), readString(in)); break;
+            default: record = ChangeRecord.clearFeedback(); break;
+        }
+        record.setSequence(sequence);
+        return record;
+    }
+
+    static void writeFeedback(DataOutputStream out, Feedback fb) throws IOException {
+        out.writeLong(fb.getSequence());
+        writeString(out, fb.getUserName());
+        writeString(out, fb.getUserEmail());
+        writeString(out, fb.getComments());
+        writeString(out, fb.getFormId());
+        writeString(out, fb.getFormTitle());
+        Map<String, Integer> ratings = fb.getRatings();
+        out.writeInt(ratings == null ? -1 : ratings.size());
+        if (ratings != null) {
+            for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue() == null ? 0 : entry.getValue());
+            }
+        }
+    }
+
+    static Feedback readFeedback(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        String userName = readString(in);
+        String userEmail = readString(in);
+        String comments = readString(in);
+        String formId = readString(in);
+        String formTitle = readString(in);
+        int count = in.readInt();
+        Map<String, Integer> ratings = null;
+        if (count >= 0) {
+            ratings = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) ratings.put(readString(in), in.readInt());
+        }
+        Feedback fb = new Feedback(userName, userEmail, ratings, comments, formId, formTitle);
+        fb.setSequence(sequence);
+        return fb;
+    }
+
+    static void writeUser(DataOutputStream out, User user) throws IOException {
+        writeString(out, user.getUsername());
+        writeString(out, user.getPasswordHash());
+        writeString(out, user.getRole());
+    }
+
+    static User readUser(DataInputStream in) throws IOException {
+        return new User(readString(in), readString(in), readString(in));
+    }
+
+    static void writeForm(DataOutputStream out, FormDefinition form) throws IOException {
+        writeString(out, form.getId());
+        writeString(out, form.getTitle());
+        writeString(out, form.getDescription());
+        out.writeInt(form.getRatingCategories().size());
+        for (String category : form.getRatingCategories()) writeString(out, category);
+    }
+
+    static FormDefinition readForm(DataInputStream in) throws IOException {
+        String id = readString(in);
+        String title = readString(in);
+        String description = readString(in);
+        int count = in.readInt();
+        List<String> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) categories.add(readString(in));
+        return new FormDefinition(id, title, description, categories);
+    }
+
+    // writeUTF is limited to 64 KB, which long comments can exceed
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
+
+/** Accepts follower connections and streams the change log to each of them. */
+class ReplicationLeader {
+    private static final int MAX_BATCH = 512;
+    private static final long HEARTBEAT_MILLIS = 1000;
+
+    private final DataService dataService;
+    private final int port;
+    private final AtomicInteger followerCount = new AtomicInteger();
+    private ServerSocket serverSocket;
+
+    ReplicationLeader(DataService dataService, int port) {
+        this.dataService = dataService;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        // Local replication only: bind to the loopback interface
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "replication-leader");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public void stop() throws IOException {
+        if (serverSocket != null) serverSocket.close();
+    }
+
+    public int getFollowerCount() {
+        return followerCount.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread t = new Thread(() -> serve(socket), "replication-follower-" + socket.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        followerCount.incrementAndGet();
+        ChangeLog log = dataService.getChangeLog();
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16))) {
+            s.setTcpNoDelay(true);
+            // Sequences only mean something within one store: a follower of another store
+            // (e.g. of this leader before a restart) must start over from a snapshot
+            String followerStore = in.readUTF();
+            long next = in.readLong() + 1;
+            if (!followerStore.equals(dataService.getStoreId())
+                    || next <= 0 || next < log.getFirstSequence() || next > log.getLastSequence() + 1) {
+                next = sendSnapshot(out);
+            }
+            while (!s.isClosed()) {
+                List<ChangeRecord> batch = log.awaitFrom(next, MAX_BATCH, HEARTBEAT_MILLIS);
+                if (batch == null) {
+                    next = sendSnapshot(out); // follower fell out of the retained log
+                    continue;
+                }
+                // Empty batches double as heartbeats carrying the leader's position
+                ReplicationCodec.writeBatch(out, log.getLastSequence(), batch);
+                out.flush();
+                next += batch.size();
+            }
+        } catch (IOException e) {
+            // follower disconnected; it reconnects with its last applied sequence
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followerCount.decrementAndGet();
+        }
+    }
+
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        DataService.Snapshot snapshot = dataService.takeSnapshot();
+        ReplicationCodec.writeSnapshot(out, snapshot);
+        out.flush();
+        return snapshot.getSequence() + 1;
+    }
+}
+
+/** Keeps a read-only DataService in sync with a leader, reconnecting when the link drops. */
+class ReplicationFollower {
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final DataService dataService;
+    private final String host;
+    private final int port;
+    private volatile boolean running;
+    private volatile boolean hasSnapshot;
+    private volatile long leaderSequence;
+    private volatile long lagMillis;
+    private volatile long snapshotsLoaded;
+    private Socket socket;
+
+    ReplicationFollower(DataService dataService, String host, int port) {
+        this.dataService = dataService;
+        this.host = host;
+        this.port = port;
+    }
+
+    public void start() {
+        dataService.setReadOnly(true);
+        running = true;
+        Thread t = new Thread(this::run, "replication-follower");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void stop() throws IOException {
+        running = false;
+        Socket s = socket;
+        if (s != null) s.close();
+    }
+
+    public long getAppliedSequence() { return dataService.getChangeLog().getLastSequence(); }
+    public long getLeaderSequence() { return leaderSequence; }
+    /** Number of leader changes not yet applied here, as of the last batch received. */
+    public long getLagRecords() { return Math.max(0, leaderSequence - getAppliedSequence()); }
+    /** Delay between the leader sending the last batch and this follower applying it. */
+    public long getLagMillis() { return lagMillis; }
+    public long getSnapshotsLoaded() { return snapshotsLoaded; }
+
+    public String describeLag() {
+        return "applied=" + getAppliedSequence() + " leader=" + leaderSequence + " lagRecords=" + getLagRecords()
+                + " lagMillis=" + lagMillis + " snapshots=" + snapshotsLoaded + " connected=" + (socket != null);
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket s = new Socket(host, port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+                socket = s;
+                out.writeUTF(hasSnapshot ? dataService.getStoreId() : "");
+                out.writeLong(hasSnapshot ? getAppliedSequence() : -1);
+                out.flush();
+                while (running) {
+                    byte type = in.readByte();
+                    if (type == ReplicationCodec.SNAPSHOT) {
+                        DataService.Snapshot snapshot = ReplicationCodec.readSnapshot(in);
+                        dataService.loadSnapshot(snapshot);
+                        leaderSequence = snapshot.getSequence(); // may be a different leader than before
+                        hasSnapshot = true;
+                        snapshotsLoaded++;
+                    } else if (type == ReplicationCodec.BATCH) {
+                        readBatch(in);
+                    } else {
+                        throw new IOException("Unknown replication frame: " + type);
+                    }
+                }
+            } catch (IOException e) {
+                // leader unreachable or connection lost; retry below
+            } catch (RuntimeException e) {
+                // A record that could not be applied leaves this copy in an unknown state:
+                // reconnect without a snapshot so the leader sends a fresh one
+                System.err.println("Replication from " + host + ":" + port + " failed, resyncing:");
+                e.printStackTrace();
+                hasSnapshot = false;
+            } finally {
+                socket = null;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void readBatch(DataInputStream in) throws IOException {
+        long leaderLast = in.readLong();
+        long sentMillis = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            dataService.applyReplicated(ReplicationCodec.readRecord(in));
+        }
+        leaderSequence = leaderLast;
+        lagMillis = count == 0 ? 0 : Math.max(0, System.currentTimeMillis() - sentMillis);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which forms each user has answered and how often, updated as feedback is stored.
+ *
+ * Keyed by the feedback's user name, the same field hasUserSubmittedForm always compared.
+ * A lookup only touches the forms of that one user instead of scanning all feedback.
+ */
+class UserActivityIndex {
+
+    private final Map<String, Map<String, Integer>> users = new ConcurrentHashMap<>();
+
+    public void add(Feedback feedback) {
+        String userName = feedback.getUserName();
+        if (userName == null) return;
+        users.computeIfAbsent(userName, k -> new ConcurrentHashMap<>()).merge(feedback.getFormId(), 1, Integer::sum);
+    }
+
+    public void clear() {
+        users.clear();
+    }
+
+    public boolean hasSubmitted(String userName, String formId) {
+        return getSubmissionCount(userName, formId) > 0;
+    }
+
+    public int getSubmissionCount(String userName, String formId) {
+        Map<String, Integer> forms = users.get(userName);
+        if (forms == null) return 0;
+        Integer count = forms.get(formId);
+        return count == null ? 0 : count;
+    }
+
+    /** Form id -> number of submissions by this user; empty if the user has none. */
+    public Map<String, Integer> getSubmissions(String userName) {
+        Map<String, Integer> forms = users.get(userName);
+        return forms == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(forms));
+    }
+}
\ No newline at end of file